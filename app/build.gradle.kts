@@ -8,6 +8,9 @@
 plugins {
     // Apply the application plugin to add support for building a CLI application in Java.
     application
+
+    // Apply the GraalVM plugin to build a native binary with `gradlew :app:nativeCompile`.
+    alias(libs.plugins.graalvm.native)
 }
 
 repositories {
@@ -34,3 +37,31 @@ application {
     // Define the main class for the application.
     mainClass = "org.example.App"
 }
+
+tasks.jar {
+    // Make the jar runnable with `java -jar`.
+    manifest {
+        attributes["Main-Class"] = "org.example.App"
+    }
+}
+
+graalvmNative {
+    binaries {
+        named("main") {
+            // The binary is written into build/native/nativeCompile/fm.
+            imageName = "fm"
+            mainClass = "org.example.App"
+            buildArgs.add("-O2")
+            // Fail the build instead of creating an image that needs a JVM at runtime.
+            buildArgs.add("--no-fallback")
+            javaLauncher = javaToolchains.launcherFor {
+                languageVersion = JavaLanguageVersion.of(23)
+                vendor = JvmVendorSpec.GRAAL_VM
+            }
+        }
+    }
+    // Use the shared reachability metadata of the libraries.
+    metadataRepository {
+        enabled = true
+    }
+}
@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Thin client of the file manager daemon, started with: java -jar build/libs/app.jar --daemon
+# It sends the working directory and the arguments to the daemon socket, or runs the jar when no daemon is listening.
+SOCKET="${FILEMANAGER_SOCKET:-${HOME}/.filemanager/daemon.sock}"
+JAR="${FILEMANAGER_JAR:-$(dirname "$0")/build/libs/app.jar}"
+# the daemon ends the output with the record separator, "exit " and the status of the command.
+STATUS=$'\036exit '
+# the status when the daemon didn't answer at all, the jar runs the command instead.
+NO_ANSWER=255
+
+request() {
+    printf '%s\0' "$PWD" "$@"
+    printf '\0'
+}
+
+# print the output of the daemon as it arrives and exit with the status it sent.
+response() {
+    awk -v mark="$STATUS" -v none="$NO_ANSWER" '
+        (i = index($0, mark)) > 0 { printf "%s", substr($0, 1, i - 1); status = substr($0, i + length(mark)); next }
+        { print; fflush() }
+        END { exit status != "" ? status : NR == 0 ? none : 1 }
+    '
+}
+
+if [ -S "$SOCKET" ]; then
+    if command -v nc > /dev/null; then
+        request "$@" | nc -U "$SOCKET" | response
+    elif command -v socat > /dev/null; then
+        # socat stops reading 0.5s after the request is sent by default, wait for the whole command instead.
+        request "$@" | socat -t 86400 - "UNIX-CONNECT:${SOCKET}" | response
+    else
+        false
+    fi
+    status=$?
+    [ "$status" -ne "$NO_ANSWER" ] && exit "$status"
+fi
+exec java -jar "$JAR" "$@"
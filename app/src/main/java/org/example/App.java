@@ -4,8 +4,14 @@
 package org.example;
 
 import org.example.operation.Operation;
+import org.example.utils.OutputUtils;
+
+import java.util.Arrays;
+
+import java.nio.file.Paths;
 
 public class App {
+    private static OutputUtils console = OutputUtils.getInstance();
     protected static final String[] COMMANDS = {
         "Use --ni command to create a file", 
         "Use --md command to create a directory", 
@@ -21,8 +27,17 @@ public class App {
         "Use --dcm command to to de-compress a file into a path", 
         "Use --rl command to read a file lines", 
         "Use --rlr command to read a file lines on a specific range", 
+        "Use --tail command to read the last lines of a file", 
         "Use --sf command to search for a word in a file", 
-        "Use --sd command to search for a word in a directory" 
+        "Use --sd command to search for a word in a directory", 
+        "Use --hash command to print the content hash of a path files", 
+        "Use --index command to build or update the index of a directory paths", 
+        "Use --find command to find the indexed paths by glob or text", 
+        "Use --watch command to print the changes of a directory tree as they happen", 
+        "Use --batch command to run the commands of a file in one process", 
+        "Use --daemon [socket] to keep the program running and answer the commands of the fm client, --daemon-stop stops it", 
+        "Use --quiet with any command to skip the [Info] message of each file", 
+        "Use --verbose with any command to show details like the throughput of each copied file" 
     };
     public String getGreeting() {
         return "Hello World!";
@@ -31,13 +46,35 @@ public class App {
     private static void showHelp(String[] args) {
         if(args.length > 0 && args[0].equals("--h")) {
             for(String c: COMMANDS) {
-                System.console().printf("%s%n", c);
+                console.printf("%s%n", c);
             }
         }
     }
 
     public static void main(String[] args) {
+        if(args.length > 0 && args[0].equals("--daemon")) {
+            Daemon.start(args.length > 1 ? Paths.get(args[1]) : Daemon.getSocketPath());
+            return;
+        }
+        run(args);
+        console.flush();
+    }
+    /**
+     * Run the commands of the arguments, the daemon runs each request with its own output.
+     * @param args - the command arguments.
+     */
+    public static void run(String[] args) {
+        execute(args);
+        console.printf("%s%n", "Use --h to se the commands or use --h after the command to see how it works");
+    }
+    /**
+     * Run the commands of the arguments without the final hint, the batch files run each line with it.
+     * @param args - the command arguments.
+     */
+    public static void execute(String[] args) {
         Operation op = new Operation(args);
+        console.setQuiet(Arrays.asList(args).contains("--quiet"));
+        console.setVerbose(Arrays.asList(args).contains("--verbose"));
         showHelp(args);
         for(String a: args) {
             switch(a) {
@@ -55,11 +92,16 @@ public class App {
                 case "--dcm" -> op.deCompress();
                 case "--rl" -> op.printLines();
                 case "--rlr" -> op.printLinesInRange();
+                case "--tail" -> op.printLastLines();
                 case "--sf" -> op.searchWordInFile();
                 case "--sd" -> op.searchWordInDirectory();
-                default -> System.console().printf("%s%n", "");
+                case "--hash" -> op.printHashes();
+                case "--index" -> op.index();
+                case "--find" -> op.find();
+                case "--watch" -> op.watch();
+                case "--batch" -> op.runBatch(App::execute);
+                default -> console.printf("%s%n", "");
             }
         }
-        System.console().printf("%s%n", "Use --h to se the commands or use --h after the command to see how it works");
     }
 }
@@ -0,0 +1,142 @@
+package org.example;
+
+import org.example.utils.ArgumentUtils;
+import org.example.utils.HashCache;
+import org.example.utils.OutputUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Server mode that keeps the JVM warm between commands.
+ * <p> It listens on a Unix domain socket and runs each request on a virtual thread, the caches like the {@link HashCache} stay in memory.
+ * <p> A request is the working directory of the client followed by the command arguments, each one ended by a NUL byte,
+ * and an empty argument marks the end of the request.
+ * The output of the command is sent back followed by the status of the command, the record separator, "exit " and the number,
+ * then the connection is closed. The status is 0 unless the command failed with an exception.
+ * <p> The relative paths of the request are resolved against the working directory of the client.
+ */
+public final class Daemon {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+    private static final String STOP = "--daemon-stop";
+    private static final String STATUS_FORMAT = "\u001eexit %d\n";
+
+    private Daemon() {
+    }
+    /**
+     * @return the default socket path in the data directory.
+     */
+    public static Path getSocketPath() {
+        return HashCache.getDataDirectory().resolve("daemon.sock");
+    }
+    /**
+     * Listen for commands until the process is stopped or a client sends --daemon-stop.
+     * @param socketPath - the Unix domain socket to listen on.
+     */
+    public static void start(Path socketPath) {
+        if(isListening(socketPath)) {
+            console.printf(CONSOLE_FORMAT, "[Error] A daemon is already listening on " + socketPath);
+            return;
+        }
+        try(ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            Files.createDirectories(socketPath.toAbsolutePath().getParent());
+            // a socket left by a stopped daemon.
+            Files.deleteIfExists(socketPath);
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteSocket(socketPath), "daemon-shutdown"));
+            console.printf(CONSOLE_FORMAT, "[Info] Daemon listening on " + socketPath);
+            console.flush();
+            while(true) {
+                SocketChannel client = server.accept();
+                Thread.ofVirtual().name("daemon-client").start(() -> handle(client));
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    private static boolean isListening(Path socketPath) {
+        if(!Files.exists(socketPath)) return false;
+        try(SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            return channel.isConnected();
+        } catch(IOException e) {
+            return false;
+        }
+    }
+    private static void deleteSocket(Path socketPath) {
+        try {
+            Files.deleteIfExists(socketPath);
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * run the request of a client with its output sent back through the socket.
+     */
+    private static void handle(SocketChannel client) {
+        try(client) {
+            List<String> request = readRequest(Channels.newInputStream(client));
+            if(request.isEmpty()) return;
+            Path workingDirectory = Paths.get(request.get(0));
+            String[] args = ArgumentUtils.resolvePaths(workingDirectory, request.subList(1, request.size()));
+            Writer writer = new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8);
+            OutputUtils output = OutputUtils.of(writer);
+            if(args.length == 1 && args[0].equals(STOP)) {
+                OutputUtils.redirect(output, () -> console.printf(CONSOLE_FORMAT, "[Info] Stopping the daemon"));
+                writer.write(String.format(STATUS_FORMAT, 0));
+                writer.close();
+                HashCache.getInstance().save();
+                System.exit(0);
+            }
+            int[] status = {0};
+            OutputUtils.redirect(output, () -> {
+                try {
+                    App.run(args);
+                } catch(Exception e) {
+                    e.printStackTrace();
+                    console.printf(CONSOLE_FORMAT, "[Error] " + e);
+                    status[0] = 1;
+                }
+            });
+            HashCache.getInstance().save();
+            writer.write(String.format(STATUS_FORMAT, status[0]));
+            writer.flush();
+        } catch(Exception e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * read the NUL ended arguments until the empty argument.
+     * @return the working directory and the arguments, empty if the client closed before the end of the request.
+     */
+    private static List<String> readRequest(InputStream input) throws IOException {
+        List<String> request = new ArrayList<>();
+        ByteArrayOutputStream token = new ByteArrayOutputStream();
+        int b;
+        while((b = input.read()) != -1) {
+            if(b != 0) {
+                token.write(b);
+                continue;
+            }
+            if(token.size() == 0) return request;
+            request.add(token.toString(StandardCharsets.UTF_8));
+            token.reset();
+        }
+        return List.of();
+    }
+}
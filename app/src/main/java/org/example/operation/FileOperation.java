@@ -3,28 +3,26 @@ package org.example.operation;
 import org.example.utils.*;
 
 import java.util.stream.Stream;
+import java.util.Iterator;
 import java.util.List;
-import java.io.Console;
 import java.io.File;
+import java.io.IOException;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 public class FileOperation {
 
-    private static Console console = System.console();
+    private static OutputUtils console = OutputUtils.getInstance();
     private static final String CONSOLE_FORMAT = "%s%n"; 
 
     private FileUtils fileUtils;
-    private TextUtils textUtils;
 
-    public FileOperation(FileUtils fileUtils, TextUtils textUtils) {
+    public FileOperation(FileUtils fileUtils) {
         this.fileUtils = fileUtils;
-        this.textUtils = textUtils;
     }
     public FileOperation() {
         fileUtils = new FileUtils();
-        textUtils = new TextUtils();
     }
     public void createDirectory(String pathURI) {
         if(!fileUtils.createDirectory(pathURI)) {
@@ -43,11 +41,12 @@ public class FileOperation {
      * @param pathURI - the directory to delete.
      * @param permission - the prefix to also delete the directory content.
      * <p> permission sets a default value of 1, if you pass --r it changes to 0, symbolizing the recursively action.
+     * @param jobs - the number of workers deleting the content at the same time.
      */
-    public void deleteDirectory(String pathURI, String permission) {
+    public void deleteDirectory(String pathURI, String permission, int jobs) {
         boolean recursively = false;
         if(!permission.isBlank() && permission.equals("--r")) recursively = true; 
-        if(!fileUtils.deleteDirectory(pathURI,recursively)) {
+        if(!fileUtils.deleteDirectory(pathURI, recursively, jobs)) {
             console.printf(CONSOLE_FORMAT, "[Error] Can't delete this directory");
         }
         if(!recursively) {
@@ -72,13 +71,18 @@ public class FileOperation {
     public void listContent(String pathURI, String permission) {
         int level = 1;
         if(!permission.isBlank() && permission.equals("--r")) level = 0;
-        List<Path> paths = fileUtils.listDirContent(pathURI, level);
-        if(paths.isEmpty()) {
-            console.printf(CONSOLE_FORMAT, "[Info] EMPTY");
-            return;
+        boolean empty = true;
+        try(Stream<PathEntry> entries = fileUtils.getLazilyDirEntries(pathURI, level)) {
+            Iterator<PathEntry> it = entries.iterator();
+            while(it.hasNext()) {
+                console.printf(CONSOLE_FORMAT, it.next().path());
+                empty = false;
+            }
+        } catch(Exception e) {
+            e.printStackTrace();
         }
-        for(Path p: paths) {
-            console.printf(CONSOLE_FORMAT, p);
+        if(empty) {
+            console.printf(CONSOLE_FORMAT, "[Info] EMPTY");
         }
     }
     /**
@@ -89,11 +93,23 @@ public class FileOperation {
     }
     /**
      * @param permission - if you copy immediate or recursively.
+     * @param jobs - the number of workers copying files at the same time.
+     */
+    public void copyDir(String sourceURI, String targetURI, String permission, int jobs) {
+        int level = 1;
+        if(!permission.isBlank() && permission.equals("--r")) level = 0;
+        fileUtils.copyDirToTarget(Paths.get(sourceURI), targetURI, level, jobs);
+    }
+    /**
+     * @param permission - if you synchronize immediate or recursively.
+     * @param jobs - the number of workers comparing and copying files at the same time.
+     * @param checksum - true to compare the content of the files with the same size and modification time.
+     * @param delete - true to delete the target content that is not on the source.
      */
-    public void copyDir(String sourceURI, String targetURI, String permission) {
+    public void syncDir(String sourceURI, String targetURI, String permission, int jobs, boolean checksum, boolean delete) {
         int level = 1;
         if(!permission.isBlank() && permission.equals("--r")) level = 0;
-        fileUtils.copyDirToTarget(Paths.get(sourceURI), targetURI, level);
+        fileUtils.syncDirToTarget(Paths.get(sourceURI), targetURI, level, jobs, checksum, delete);
     }
     /**
      * Move a file to destination target.
@@ -108,43 +124,117 @@ public class FileOperation {
      * @param sourceURI - the source of the directory to move.
      * @param targetURI - the target path.
      * @param permission - if to move immediate order or recursively.
+     * @param jobs - the number of workers moving files across devices at the same time.
      */
-    public void moveDir(String sourceURI, String targetURI, String permission) {
+    public void moveDir(String sourceURI, String targetURI, String permission, int jobs) {
         int level = 1;
         if(!permission.isBlank() && permission.equals("--r")) level = 0;
-        fileUtils.moveDirToTarget(Paths.get(sourceURI), targetURI, level);
+        fileUtils.moveDirToTarget(Paths.get(sourceURI), targetURI, level, jobs);
     }
     public void readCompressedFile(String fileURI) {
         // TODO: only compressed file types allowed
         fileUtils.readZipFile(fileURI);
     }
-    public void compressPath(String sourceURI, String targetURI, String permission) {
+    /**
+     * @param permission - if you compress immediate or recursively.
+     * @param jobs - the number of workers deflating files at the same time.
+     * @param compression - the deflate level from 0 to 9, -1 for the default level.
+     */
+    public void compressPath(String sourceURI, String targetURI, String permission, int jobs, int compression) {
         int level = 1;
         if(!permission.isBlank() && permission.equals("--r")) level = 0;
-        fileUtils.compreessPath(Paths.get(sourceURI), Paths.get(targetURI), level);
+        fileUtils.compreessPath(Paths.get(sourceURI), Paths.get(targetURI), level, jobs, compression);
     }
-    public void deCompressFile(String fileURI, String targetURI) {
-        if(fileURI.isBlank() || targetURI.isBlank()) return;
-        fileUtils.deCompressFile(fileURI, Paths.get(targetURI));
+    /**
+     * @param targets - the paths where to store the decompressed files.
+     * @param jobs - the number of workers extracting entries at the same time.
+     */
+    public void deCompressFile(String fileURI, List<String> targets, int jobs) {
+        if(fileURI.isBlank() || targets.isEmpty()) return;
+        fileUtils.deCompressFile(fileURI, targets.stream().map(Paths::get).toList(), jobs);
     }
+    /**
+     * Print the content hash of the files of a path.
+     * @param permission - if you hash immediate or recursively.
+     * @param jobs - the number of workers hashing files at the same time.
+     */
+    public void printHashes(String pathURI, String permission, int jobs) {
+        int level = 1;
+        if(!permission.isBlank() && permission.equals("--r")) level = 0;
+        fileUtils.printHashes(Paths.get(pathURI), level, jobs);
+    }
+    /**
+     * Build or update the index of the paths of a directory.
+     * @param update - true to update an existing index instead of building it again.
+     * @param pathURI - the indexed directory, blank to update every index.
+     * @param text - true to build the text index of the directory too, the words of each file.
+     * @param jobs - the number of workers reading files at the same time for the text index.
+     */
+    public void indexPath(boolean update, String pathURI, boolean text, int jobs) {
+        Path rootPath = pathURI.isBlank() ? null : Paths.get(pathURI);
+        if(update) {
+            fileUtils.updateIndex(rootPath);
+        } else if(rootPath != null) {
+            fileUtils.buildIndex(rootPath);
+        }
+        if(text && rootPath != null) {
+            fileUtils.buildTextIndex(rootPath, jobs);
+        }
+    }
+    /**
+     * Print the changes of a directory tree as they happen.
+     * @param pathURI - the directory to watch.
+     */
+    public void watchPath(String pathURI) {
+        fileUtils.watchPath(Paths.get(pathURI));
+    }
+    /**
+     * Print the indexed paths that match a pattern.
+     * @param pattern - the glob or the text to search.
+     * @param pathURI - the indexed directory, blank to search every index.
+     */
+    public void findInIndex(String pattern, String pathURI) {
+        fileUtils.findInIndex(pattern, pathURI.isBlank() ? null : Paths.get(pathURI));
+    }
+    /**
+     * Print a file lines prefixed by their line number.
+     * <p> the lines are streamed to the buffered output, so the memory doesn't grow with the file size.
+     * @param fileURI - the file to print.
+     */
     public void printFileLines(String fileURI) {
-        String[] lines = TextUtils.getFileLines(fileURI).split("\n");
-        if(lines.length == 0) return;
-        for(int i=0; i<lines.length; ++i) {
-            String l = lines[i];
-            int c = i;
-            console.printf(CONSOLE_FORMAT, String.format("%d:%s", ++c, l));
+        try {
+            TextUtils.writeNumberedLines(fileURI, console);
+        } catch(IOException e) {
+            e.printStackTrace();
         }
     }
+    /**
+     * Print the lines of a file in a range.
+     * <p> the lines are read from the offset stored on the file line index, so the content before the range isn't read.
+     * @param fileURI - the file to print.
+     * @param start - the first line, if its not before stop the range starts on the first line.
+     * @param stop - the last line, 0 or a value after the last line means to the end of the file.
+     */
     public void printFileLines(String fileURI, int start, int stop) {
-        try (Stream<String> lazyLines = TextUtils.getLazilyFileLines(fileURI)) {
-            List<String> lines = lazyLines.toList();
-            stop = stop >= lines.size() || stop <= 0 ? lines.size() : stop;
-            start = start > 0 && start < stop ? start-1 : 0;
-            for(int i=start; i<stop; ++i) {
-                int c = i;
-                console.printf(CONSOLE_FORMAT, String.format("%d:%s", ++c, lines.get(i)));
-            }
+        try {
+            LineIndex index = LineIndex.load(Paths.get(fileURI));
+            long last = stop >= index.getLines() || stop <= 0 ? index.getLines() : stop;
+            long first = start > 0 && start < last ? start : 1;
+            index.readLines(first, last, (n, l) -> console.printf(CONSOLE_FORMAT, String.format("%d:%s", n, l)));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Print the last lines of a file.
+     * <p> the file is scanned backwards from the end, so only the blocks with the last lines are read.
+     * @param fileURI - the file to print.
+     * @param count - the number of lines to print.
+     */
+    public void printLastFileLines(String fileURI, int count) {
+        try {
+            Path p = Paths.get(fileURI);
+            LineIndex.readFrom(p, LineIndex.findTailOffset(p, count), l -> console.printf(CONSOLE_FORMAT, l));
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -152,42 +242,60 @@ public class FileOperation {
     /**
      * search in the file lines for a particular word.
      * <p> the path that you provide must be of a file type.
+     * <p> many words are searched at once when separated by comma or read from a file with @file.
      * @param fileURI - the file to read lines and search for the word.
-     * @param word - the word to search in a file.
+     * @param word - the word to search in a file, or the list of words.
+     * @param mode - the search engine: word, literal or regex.
+     * @param mapped - if to scan the memory-mapped file bytes instead of decoding every line.
      */
-    public void searchWordInFile(String fileURI, String word) {
+    public void searchWordInFile(String fileURI, String word, String mode, boolean mapped) {
         File f = new File(fileURI);
         if(!f.isFile()) return;
-        try(Stream<String> fileLines = TextUtils.getLazilyFileLines(fileURI)) {
-            List<String> lines = fileLines.toList();
-            for(int i=0; i<lines.size(); ++i) {
-                String l = lines.get(i);
-                if(textUtils.lineContainsWord(l, word)) {
-                    int lineNumber = i;
-                    console.printf(CONSOLE_FORMAT, String.format("%s:%d\t\t%s",fileURI, ++lineNumber, l));
-                }
+        SearchUtils searchUtils = new SearchUtils(fileUtils, 1, true, mapped);
+        try {
+            List<String> results;
+            if(mode.equals(SearchEngine.WORD)) {
+                results = searchUtils.searchIndexed(f.toPath(), MultiWordMatcher.of(word));
+            } else {
+                results = searchUtils.search(f.toPath(), SearchEngine.of(mode, word));
             }
-        } catch(Exception e) {
+            for(String l: results) {
+                if(console.checkError()) break;
+                console.printf(CONSOLE_FORMAT, l);
+            }
+        } catch(IllegalArgumentException e) {
+            console.printf(CONSOLE_FORMAT, "[Error] " + e.getMessage());
+        } catch(IOException e) {
             e.printStackTrace();
         }
     }
     /**
      * search in the directory files for a particular word.
      * <p> you provide a nested level to reach, 0 means you search recursively.
+     * <p> the files are searched in parallel, the results are printed in walk order unless ordered is false.
+     * <p> many words are searched at once when separated by comma or read from a file with @file.
      * @param fileURI - the file to read lines and search for the word.
-     * @param word - the word to search in a file.
+     * @param word - the word to search in a file, or the list of words.
+     * @param mode - the search engine: word, literal or regex.
      * @param level - the nested level to reach.
+     * @param jobs - the number of workers searching files at the same time.
+     * @param ordered - if to print the results in walk order or as they are found.
+     * @param mapped - if to scan the memory-mapped file bytes instead of decoding every line.
      */
-    public void searchWordInDirectory(String pathURI, String word, int level) {
+    public void searchWordInDirectory(String pathURI, String word, String mode, int level, int jobs, boolean ordered, boolean mapped) {
         File f = new File(pathURI);
         if(!f.isDirectory()) return;
-        List<Path> paths = fileUtils.listDirContent(pathURI, level);
-        if(paths.isEmpty()) return;
-        for(Path p: paths) {
-            if(p.toFile().isFile()) {
-                searchWordInFile(p.toString(), word);
+        SearchUtils searchUtils = new SearchUtils(fileUtils, jobs, ordered, mapped);
+        try {
+            if(mode.equals(SearchEngine.WORD)) {
+                searchUtils.searchWordsInDirectory(f.toPath(), MultiWordMatcher.of(word), level);
+            } else {
+                searchUtils.searchInDirectory(f.toPath(), SearchEngine.of(mode, word), level);
             }
-            console.printf(CONSOLE_FORMAT, "");
+        } catch(IllegalArgumentException e) {
+            console.printf(CONSOLE_FORMAT, "[Error] " + e.getMessage());
+        } catch(IOException e) {
+            e.printStackTrace();
         }
     }
 
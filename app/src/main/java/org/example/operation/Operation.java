@@ -1,13 +1,21 @@
 package org.example.operation;
 
+import org.example.utils.BatchUtils;
 import org.example.utils.CommandUtils;
+import org.example.utils.OutputUtils;
+import org.example.utils.SearchEngine;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+import java.nio.file.Paths;
 
-import java.io.Console;
 
 public class Operation {
     private static final String NO_PATH_WARNING = "[Warning] No path provided...";
     private static final String NO_ARGS_WARNING = "[Warning] No arguments provided";
-    private static Console console = System.console();
+    private static OutputUtils console = OutputUtils.getInstance();
     private static final String CONSOLE_FORMAT = "%s%n";
 
     private FileOperation fileOperation;
@@ -51,6 +59,48 @@ public class Operation {
         if((index+1) >= arguments.length) return null;
         return arguments[index+1];
     }
+    /**
+     * Get the values attach to the prefix.
+     * <p> the values are the next arguments on the command line until another prefix or "To" is found.
+     * @param prefix - the prefix to search its values.
+     * @return the values of the prefix, if not present an empty list.
+     */
+    private List<String> getPrefixValues(String prefix) {
+        List<String> values = new ArrayList<>();
+        int index = getPrefixIndex(prefix);
+        if(index == -1) return values;
+        for(int i=index+1; i<arguments.length; ++i) {
+            String value = arguments[i];
+            if(value.startsWith("--") || value.equals("To")) break;
+            values.add(value);
+        }
+        return values;
+    }
+    /**
+     * Get the number of workers given the prefix "--jobs N".
+     * @return the number of workers, if not present or invalid the number of available processors.
+     */
+    private int getJobs() {
+        int jobs = Runtime.getRuntime().availableProcessors();
+        String value = getPrefixValue("--jobs");
+        if(value == null) return jobs;
+        try {
+            int n = Integer.parseInt(value);
+            if(n > 0) return n;
+        } catch(NumberFormatException e) {
+            // fall through to the warning.
+        }
+        console.printf(CONSOLE_FORMAT, "[Warning] Invalid --jobs value, using " + jobs);
+        return jobs;
+    }
+    /**
+     * Get the search engine given the prefix "--mode word|literal|regex".
+     * @return the search mode, if not present word.
+     */
+    private String getSearchMode() {
+        String value = getPrefixValue("--mode");
+        return value != null ? value : SearchEngine.WORD;
+    }
     /**
      * Create a file given the prefix "--ni path".
      * <p> if more than 1 file is provide, this will create one by one, or will be interrupted if any of them is not a file.
@@ -98,6 +148,7 @@ public class Operation {
     /**
      * Deletes a directory given the prefix "--dd path".
      * <p> if the directory is not empty the user needs to provide --r prefix.
+     * <p> the content is deleted in parallel, use --jobs N to change the number of workers.
      */
     public void deleteDirectory() {
         String fileURI = getPrefixValue("--dd");
@@ -106,17 +157,12 @@ public class Operation {
             return;
         }
         if(commandUtils.showHelpOnDeleteDirectory()) return;
-        int fileIndex = getPrefixIndex("--dd");
-        if(fileIndex == -1) return;
         String p = "";
         int permission = getPrefixIndex("--r");
-        if(permission != -1) p = "-re";
-        if((fileIndex+2) == arguments.length) {
-            fileOperation.deleteDirectory(fileURI, p);
-        } else if(!fileURI.equals(arguments[arguments.length-1])) {
-            for(int i=fileIndex+1; i<arguments.length; ++i) {
-                fileOperation.deleteDirectory(arguments[i], p);
-            }
+        if(permission != -1) p = "--r";
+        int jobs = getJobs();
+        for(String d: getPrefixValues("--dd")) {
+            fileOperation.deleteDirectory(d, p, jobs);
         }
     }
     /**
@@ -188,21 +234,13 @@ public class Operation {
             }
         }
     }
-    /**
-     * Helper method to copy from multiple sources to multiple targets.
-     */
-    private void copyMultipleSourceToTargetsDir(int sourceIndex, int assignIndex, String permission) {
-        for(int i=sourceIndex+1; i<assignIndex; ++i) {
-            for(int j=assignIndex+1; j<arguments.length-1; ++j) {
-                fileOperation.copyDir(arguments[i], arguments[j], permission);
-            }
-        }
-    }
     /**
      * Copy directories.
      * <p> Copy 1 directory to 1 target - example: bin To docs.
      * <p> Copy 2 files to 1 target - example: bin lib To docs.
      * <p> Copy 2 files to 2 targets - example: bin lib to docs other-path.
+     * <p> The files are copied in parallel, use --jobs N to change the number of workers.
+     * <p> Use --sync to copy only the new or changed files, --checksum to compare their content and --delete to remove the extra files.
      */
     public void copyDirs() {
         String prefix = "--cpd";
@@ -213,19 +251,21 @@ public class Operation {
             console.printf(CONSOLE_FORMAT, NO_PATH_WARNING);
             return;
         }
-        // fix: only one or multiple source to one target copies are allowed.
-        int sourceIndex = getPrefixIndex(prefix);
-        int assignIndex = getPrefixIndex("To");
         String permission = getPrefixIndex("--r") != -1 ? "--r":"";
-        boolean targetCondition = (arguments.length-2 == assignIndex || arguments.length-3 == assignIndex);
-
-        // First from one source to one target
-        if(arguments[assignIndex-1].equals(source) || !arguments[assignIndex-1].equals(source) && targetCondition) {
-            for(int i=sourceIndex+1; i<assignIndex; ++i) {
-                fileOperation.copyDir(arguments[i], target, permission);
+        int jobs = getJobs();
+        List<String> sources = getPrefixValues(prefix);
+        List<String> targets = getPrefixValues("To");
+        boolean sync = getPrefixIndex("--sync") != -1;
+        boolean checksum = getPrefixIndex("--checksum") != -1;
+        boolean delete = getPrefixIndex("--delete") != -1;
+        for(String s: sources) {
+            for(String t: targets) {
+                if(sync) {
+                    fileOperation.syncDir(s, t, permission, jobs, checksum, delete);
+                } else {
+                    fileOperation.copyDir(s, t, permission, jobs);
+                }
             }
-        } else if(!arguments[assignIndex-1].equals(source) && !targetCondition) {
-            copyMultipleSourceToTargetsDir(sourceIndex, assignIndex, permission);
         }
     }
     /**
@@ -257,6 +297,7 @@ public class Operation {
      * Move directories.
      * <p> Move 1 directory to 1 target - example: bin To docs.
      * <p> Move 2 directories to 1 target - example: bin lib To docs.
+     * <p> A recursive move on the same file system is a single rename, across devices the files are copied in parallel, use --jobs N to change the number of workers.
      */
     public void moveDirs() {
         String prefix = "--mvd";
@@ -272,13 +313,11 @@ public class Operation {
         String permission = "";
         if(p != -1) permission = "--r";
 
-        int sourceIndex = getPrefixIndex(prefix);
-        int assignIndex = getPrefixIndex("To");
-        boolean targetCondition = (arguments.length-2 == assignIndex || arguments.length-3 == assignIndex);
-        // move one file to one target
-        if(arguments[assignIndex-1].equals(source) || !arguments[assignIndex-1].equals(source) && targetCondition) {
-            for(int i=sourceIndex+1; i<assignIndex; ++i) {
-                fileOperation.moveDir(arguments[i], target, permission);
+        // move the directories to one target
+        if(getPrefixValues("To").size() == 1) {
+            int jobs = getJobs();
+            for(String s: getPrefixValues(prefix)) {
+                fileOperation.moveDir(s, target, permission, jobs);
             }
         } else {
             console.printf(CONSOLE_FORMAT, "[Warning] Can't move directory into multiple targets.");
@@ -297,9 +336,26 @@ public class Operation {
         if(commandUtils.showHelpOnListEntries()) return;
         fileOperation.readCompressedFile(fileURI);
     }
+    /**
+     * Get the deflate level given the prefix "--level N".
+     * @return the level from 0 to 9, if not present or invalid -1 for the default level.
+     */
+    private int getCompressionLevel() {
+        String value = getPrefixValue("--level");
+        if(value == null) return -1;
+        try {
+            int n = Integer.parseInt(value);
+            if(n >= 0 && n <= 9) return n;
+        } catch(NumberFormatException e) {
+            // fall through to the warning.
+        }
+        console.printf(CONSOLE_FORMAT, "[Warning] Invalid --level value, using the default level");
+        return -1;
+    }
     /**
      * Make a compressed file with a specific content given the path.
      * <p> You can compress one source to a single target - example: src To folder.zip.
+     * <p> The files are compressed in parallel, use --jobs N to change the number of workers and --level 0-9 for the compression level.
      */
     public void compress() {
         String sourceURI = getPrefixValue("--cm");
@@ -309,7 +365,7 @@ public class Operation {
             console.printf(CONSOLE_FORMAT, NO_PATH_WARNING);
             return;
         }
-        if(arguments.length > 5) return;
+        if(getPrefixValues("--cm").size() > 1 || getPrefixValues("To").size() > 1) return;
 
         // recursively compress files command
         int r = getPrefixIndex("--r");
@@ -318,11 +374,13 @@ public class Operation {
             permission = "--r";
         }
 
-        fileOperation.compressPath(sourceURI, targetURI, permission);
+        fileOperation.compressPath(sourceURI, targetURI, permission, getJobs(), getCompressionLevel());
     }
     /**
      * De-compressed a file into a directory.
-     * <p> You can de-compress one source to a single target - example: folder.zip.
+     * <p> You can de-compress one source to a single target - example: folder.zip To path.
+     * <p> You can de-compress one source to multiple targets - example: folder.zip To path other-path.
+     * <p> The entries are extracted in parallel, use --jobs N to change the number of workers.
      */
     public void deCompress() {
         String sourceURI = getPrefixValue("--dcm");
@@ -332,13 +390,10 @@ public class Operation {
             console.printf(CONSOLE_FORMAT, NO_PATH_WARNING);
             return;
         }
-        int assignIndex = getPrefixIndex("To");
-        if(arguments[assignIndex-1].equals(sourceURI) && arguments.length-2 == assignIndex) {
-            fileOperation.deCompressFile(sourceURI, targetURI);
-        } else if(arguments[assignIndex-1].equals(sourceURI) && arguments.length-2 > assignIndex) {
-            for(int i=assignIndex+1; i<arguments.length; ++i) {
-                fileOperation.deCompressFile(sourceURI, arguments[i]);
-            }
+        int jobs = getJobs();
+        List<String> targets = getPrefixValues("To");
+        for(String s: getPrefixValues("--dcm")) {
+            fileOperation.deCompressFile(s, targets, jobs);
         }
     }
     /**
@@ -385,11 +440,114 @@ public class Operation {
             fileOperation.printFileLines(fileURI, start, stop);
         }
     }
+    /**
+     * Print the last lines of a file.
+     * <p> The number of lines is optional and by default its 10 - example: --tail app.log 50
+     */
+    public void printLastLines() {
+        String fileURI = getPrefixValue("--tail");
+        if(fileURI == null) {
+            console.printf(CONSOLE_FORMAT, NO_PATH_WARNING);
+            return;
+        }
+        if(commandUtils.showHelpOnPrintLastLines()) return;
+        List<String> values = getPrefixValues("--tail");
+        int count = 10;
+        if(values.size() > 1) {
+            try {
+                count = Integer.parseInt(values.get(1));
+            } catch(NumberFormatException e) {
+                console.printf(CONSOLE_FORMAT, "[Warning] Invalid number of lines, using " + count);
+            }
+        }
+        fileOperation.printLastFileLines(fileURI, count);
+    }
+    /**
+     * Print the content hash of the files of a path.
+     * <p> The hashes are cached by path, size and modification time, so a rerun only reads the changed files - example: --hash src --r
+     * <p> If you provide more than 1 path the hashes of each path are printed.
+     */
+    public void printHashes() {
+        String pathURI = getPrefixValue("--hash");
+        if(pathURI == null) {
+            console.printf(CONSOLE_FORMAT, NO_PATH_WARNING);
+            return;
+        }
+        if(commandUtils.showHelpOnHash()) return;
+        String permission = getPrefixIndex("--r") != -1 ? "--r":"";
+        int jobs = getJobs();
+        for(String p: getPrefixValues("--hash")) {
+            fileOperation.printHashes(p, permission, jobs);
+        }
+    }
+    /**
+     * Build or update the index of the paths of a directory - example: --index build src
+     * <p> Use --index update src to list again only the directories that changed, without a path every index is updated.
+     * <p> Use --text to build the index of the words of the files too, --sd and --sf read it before searching the files.
+     */
+    public void index() {
+        String action = getPrefixValue("--index");
+        if(action == null) {
+            console.printf(CONSOLE_FORMAT, NO_ARGS_WARNING);
+            return;
+        }
+        if(commandUtils.showHelpOnIndex()) return;
+        List<String> values = getPrefixValues("--index");
+        boolean update = action.equals("update");
+        if(!update && !action.equals("build")) {
+            console.printf(CONSOLE_FORMAT, "[Error] Use build or update after --index");
+            return;
+        }
+        boolean text = getPrefixIndex("--text") != -1;
+        int jobs = getJobs();
+        if(values.size() < 2) {
+            if(update) {
+                fileOperation.indexPath(true, "", false, jobs);
+            } else {
+                console.printf(CONSOLE_FORMAT, NO_PATH_WARNING);
+            }
+            return;
+        }
+        for(int i=1; i<values.size(); ++i) {
+            fileOperation.indexPath(update, values.get(i), text, jobs);
+        }
+    }
+    /**
+     * Find the indexed paths that match a glob or contain a text - example: --find "*.java" src
+     * <p> Without a path every index is searched.
+     */
+    public void find() {
+        String pattern = getPrefixValue("--find");
+        if(pattern == null) {
+            console.printf(CONSOLE_FORMAT, NO_ARGS_WARNING);
+            return;
+        }
+        if(commandUtils.showHelpOnFind()) return;
+        List<String> values = getPrefixValues("--find");
+        fileOperation.findInIndex(pattern, values.size() > 1 ? values.get(1) : "");
+    }
+    /**
+     * Watch a directory tree and print each change as a line - example: --watch logs
+     * <p> The line has the change (+ created, - deleted, ~ modified), the type (d, f or o for other), the size and the path.
+     * <p> It runs until the program is stopped.
+     */
+    public void watch() {
+        String pathURI = getPrefixValue("--watch");
+        if(pathURI == null) {
+            console.printf(CONSOLE_FORMAT, NO_PATH_WARNING);
+            return;
+        }
+        if(commandUtils.showHelpOnWatch()) return;
+        fileOperation.watchPath(pathURI);
+    }
     /**
      * Search for a word inside a file.
      * <p> For now you have to provide the relative path of that file.
      * <p> The search its ignore-case search.
      * <p> If you provide more than 1 file the word will be searched inside those files. The result will be separated by end of line.
+     * <p> Many words are searched in one pass when separated by comma or read from a file with @file, each line shows the words it contains.
+     * <p> Use --mmap to scan the memory-mapped bytes of big files instead of decoding every line.
+     * <p> Use --mode literal to search any text or --mode regex to search a regular expression, the default is word.
      */
     public void searchWordInFile() {
         String word = getPrefixValue("--sf");
@@ -398,20 +556,23 @@ public class Operation {
             return;
         }
         if(commandUtils.showHelpOnSearchWordInFile()) return;
-        int wordIndex = getPrefixIndex("--sf");
-        if(arguments.length < 3) {
-            fileOperation.searchWordInFile(arguments[arguments.length-1], word);
-        } else if(arguments.length >= 3) {
-            for(int i=wordIndex+2; i<arguments.length; ++i) {
-                fileOperation.searchWordInFile(arguments[i], word);
-                console.printf(CONSOLE_FORMAT, "");
-            }
+        boolean mapped = getPrefixIndex("--mmap") != -1;
+        String mode = getSearchMode();
+        List<String> values = getPrefixValues("--sf");
+        for(int i=1; i<values.size(); ++i) {
+            fileOperation.searchWordInFile(values.get(i), word, mode, mapped);
+            console.printf(CONSOLE_FORMAT, "");
         }
     }
     /**
      * Search for a word inside a directory.
      * <p> For now you have to provide the relative path of that directory.
      * <p> The search its ignore-case search.
+     * <p> The files are searched in parallel, use --jobs N to change the number of workers.
+     * <p> The results are printed in the directory order unless --unordered is provided.
+     * <p> Many words are searched in one pass when separated by comma or read from a file with @file, each line shows the words it contains.
+     * <p> Use --mmap to scan the memory-mapped bytes of big files instead of decoding every line.
+     * <p> Use --mode literal to search any text or --mode regex to search a regular expression, the default is word.
      */
     public void searchWordInDirectory() {
         String word = getPrefixValue("--sd");
@@ -423,9 +584,31 @@ public class Operation {
         int permission = getPrefixIndex("--r");
         permission = permission != -1 ? 0:1;
 
-        int wordIndex = getPrefixIndex("--sd");
-        if((wordIndex+2) < arguments.length) {
-            fileOperation.searchWordInDirectory(arguments[wordIndex+2], word, permission);
+        boolean ordered = getPrefixIndex("--unordered") == -1;
+        boolean mapped = getPrefixIndex("--mmap") != -1;
+        String mode = getSearchMode();
+        int jobs = getJobs();
+        List<String> values = getPrefixValues("--sd");
+        for(int i=1; i<values.size(); ++i) {
+            fileOperation.searchWordInDirectory(values.get(i), word, mode, permission, jobs, ordered, mapped);
+        }
+    }
+    /**
+     * Run the commands of a batch file in one process, one command per line - example: --batch commands.txt --jobs 4
+     * <p> Commands that don't share paths run in parallel, the output is printed in the file order.
+     * <p> --quiet and --verbose are applied to every command of the file.
+     * @param runner - runs the arguments of each command.
+     */
+    public void runBatch(Consumer<String[]> runner) {
+        String batchURI = getPrefixValue("--batch");
+        if(batchURI == null) {
+            console.printf(CONSOLE_FORMAT, NO_PATH_WARNING);
+            return;
         }
+        if(commandUtils.showHelpOnBatch()) return;
+        List<String> flags = new ArrayList<>();
+        if(getPrefixIndex("--quiet") != -1) flags.add("--quiet");
+        if(getPrefixIndex("--verbose") != -1) flags.add("--verbose");
+        new BatchUtils(runner, getJobs()).runBatch(Paths.get(batchURI), flags);
     }
 }
@@ -0,0 +1,100 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import java.nio.file.Path;
+
+/**
+ * Helpers for the command arguments that don't come from the command line, like the daemon requests or the batch files.
+ */
+public final class ArgumentUtils {
+    /**
+     * positions after a command of the values that are not paths, like the word to search.
+     */
+    private static final Map<String, List<Integer>> NOT_PATHS = Map.of(
+        "--sf", List.of(1),
+        "--sd", List.of(1),
+        "--tail", List.of(2),
+        "--rlr", List.of(2, 3),
+        "--jobs", List.of(1),
+        "--level", List.of(1),
+        "--index", List.of(1),
+        "--find", List.of(1),
+        "--mode", List.of(1)
+    );
+
+    private ArgumentUtils() {
+    }
+    /**
+     * Split a command line into arguments.
+     * <p> the arguments are separated by spaces, double quotes keep the spaces of an argument - example: --cpd "my dir" To backup
+     * @param line - the command line.
+     * @return the arguments of the line.
+     */
+    public static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean pending = false;
+        for(int i=0; i<line.length(); ++i) {
+            char c = line.charAt(i);
+            if(c == '"') {
+                quoted = !quoted;
+                pending = true;
+            } else if(Character.isWhitespace(c) && !quoted) {
+                if(pending) tokens.add(token.toString());
+                token.setLength(0);
+                pending = false;
+            } else {
+                token.append(c);
+                pending = true;
+            }
+        }
+        if(pending) tokens.add(token.toString());
+        return tokens;
+    }
+    /**
+     * Get the indexes of the arguments that are paths.
+     * <p> the flags and the values that are not paths, like the word to search or the number of jobs, are left out.
+     * @param args - the command arguments.
+     * @return the indexes of the path arguments.
+     */
+    public static List<Integer> getPathIndexes(List<String> args) {
+        List<Integer> indexes = new ArrayList<>();
+        List<Integer> notPaths = List.of();
+        int position = 0;
+        for(int i=0; i<args.size(); ++i) {
+            String a = args.get(i);
+            if(a.startsWith("--") || a.equals("To")) {
+                notPaths = NOT_PATHS.getOrDefault(a, List.of());
+                position = 0;
+                continue;
+            }
+            ++position;
+            if(!notPaths.contains(position)) indexes.add(i);
+        }
+        return indexes;
+    }
+    /**
+     * Resolve the relative paths of the arguments against a directory.
+     * <p> the file of words to search, like @words.txt, is resolved too.
+     * @param directory - the directory of the relative paths.
+     * @param args - the command arguments.
+     * @return the arguments with absolute paths.
+     */
+    public static String[] resolvePaths(Path directory, List<String> args) {
+        String[] resolved = args.toArray(new String[0]);
+        List<Integer> pathIndexes = getPathIndexes(args);
+        for(int i=0; i<resolved.length; ++i) {
+            String a = args.get(i);
+            if(pathIndexes.contains(i)) {
+                resolved[i] = directory.resolve(a).toString();
+            } else if(a.startsWith("@") && i > 0 && (args.get(i-1).equals("--sf") || args.get(i-1).equals("--sd"))) {
+                resolved[i] = "@" + directory.resolve(a.substring(1));
+            }
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the commands of a batch file in one process.
+ * <p> Each line is a command with the same arguments of the command line, empty lines and lines starting with # are skipped.
+ * <p> The commands run in parallel, but a command waits for every previous command that uses the same paths,
+ * or a parent or child of them, so the file order is kept where it matters.
+ * <p> The output of each command is captured and printed in the file order.
+ */
+public class BatchUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+
+    private record Command(int line, String text, String[] args, List<Path> paths, CompletableFuture<String> output) {}
+
+    private Consumer<String[]> runner;
+    private int jobs;
+
+    /**
+     * @param runner - runs the arguments of a command.
+     * @param jobs - the number of commands running at the same time.
+     */
+    public BatchUtils(Consumer<String[]> runner, int jobs) {
+        this.runner = runner;
+        this.jobs = jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+    }
+    /**
+     * Run the commands of a batch file.
+     * <p> the relative paths of the commands are resolved against the directory of the batch file.
+     * @param batchFile - the file with one command per line.
+     * @param flags - flags added to every command, like --quiet.
+     */
+    public void runBatch(Path batchFile, List<String> flags) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(batchFile);
+        } catch(IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        Path directory = batchFile.toAbsolutePath().getParent();
+        ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        List<Command> commands = new ArrayList<>();
+        try {
+            for(int i=0; i<lines.size(); ++i) {
+                String text = lines.get(i).strip();
+                if(text.isEmpty() || text.startsWith("#")) continue;
+                List<String> tokens = new ArrayList<>(ArgumentUtils.tokenize(text));
+                if(tokens.contains("--batch") || tokens.contains("--daemon") || tokens.contains("--watch")) {
+                    // --watch never ends, it would keep a worker of the batch forever.
+                    console.printf(CONSOLE_FORMAT, "[Warning] Skipping line " + (i+1) + ", --batch, --daemon and --watch can't run in a batch");
+                    continue;
+                }
+                tokens.addAll(flags);
+                String[] args = ArgumentUtils.resolvePaths(directory, tokens);
+                List<Path> paths = new ArrayList<>();
+                for(int p: ArgumentUtils.getPathIndexes(tokens)) {
+                    paths.add(Path.of(args[p]).normalize());
+                }
+                commands.add(schedule(i+1, text, args, paths, commands, executor));
+            }
+            for(Command c: commands) {
+                console.printf(CONSOLE_FORMAT, "[Info] Line " + c.line() + " => " + c.text());
+                console.printf("%s", c.output().get());
+            }
+            console.printf("[Info] Ran %d commands from %s using %d jobs%n", commands.size(), batchFile, jobs);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e) {
+            e.printStackTrace();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    /**
+     * Start a command once the previous commands that touch its paths are done.
+     */
+    private Command schedule(int line, String text, String[] args, List<Path> paths, List<Command> previous, ExecutorService executor) {
+        List<CompletableFuture<String>> barrier = new ArrayList<>();
+        for(Command c: previous) {
+            if(overlaps(paths, c.paths())) barrier.add(c.output());
+        }
+        CompletableFuture<String> output = CompletableFuture
+            .allOf(barrier.toArray(new CompletableFuture<?>[0]))
+            .thenApplyAsync(v -> capture(args), executor);
+        return new Command(line, text, args, paths, output);
+    }
+    private static boolean overlaps(List<Path> paths, List<Path> others) {
+        for(Path p: paths) {
+            for(Path o: others) {
+                if(p.startsWith(o) || o.startsWith(p)) return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * @return the output of the command.
+     */
+    private String capture(String[] args) {
+        StringWriter text = new StringWriter();
+        OutputUtils.redirect(OutputUtils.of(text), () -> {
+            try {
+                runner.accept(args);
+            } catch(RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+        return text.toString();
+    }
+}
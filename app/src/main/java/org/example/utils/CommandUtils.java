@@ -1,11 +1,10 @@
 package org.example.utils;
 
-import java.io.Console;
 import java.io.File;
 
 public class CommandUtils {
     private String[] args;
-    private static Console console = System.console(); 
+    private static OutputUtils console = OutputUtils.getInstance();
     private static final String CONSOLE_FORMAT = "%s%n";
 
     public CommandUtils(String[] args) {
@@ -78,6 +77,10 @@ public class CommandUtils {
         help.append("If you want to delete multiple directories:");
         help.append("\n\t");
         help.append(" => Use [--dd path other-path --r] to delete the directories and they're content.");
+        help.append("\n\t");
+        help.append("The content is deleted in parallel, to change the number of workers:");
+        help.append("\n\t");
+        help.append(" => Use [--dd path --r --jobs 8 --quiet] to delete with 8 workers without printing each file.");
         console.printf(CONSOLE_FORMAT, help);
 
         return true;
@@ -152,6 +155,18 @@ public class CommandUtils {
         help.append("If you want to copy multiple directories into one destination:");
         help.append("\n\t");
         help.append(" => Use [--cpd path other-directory To other-path --r] to copy the directories into the destination.");
+        help.append("\n\t");
+        help.append("The files are copied in parallel, to change the number of workers:");
+        help.append("\n\t");
+        help.append(" => Use [--cpd path To other-path --r --jobs 8] to copy the directory with 8 workers.");
+        help.append("\n\t");
+        help.append(" => Use [--cpd path To other-path --r --verbose] to show the throughput of each copied file.");
+        help.append("\n\t");
+        help.append("If you want to copy only the new or changed files, comparing size and modification time:");
+        help.append("\n\t");
+        help.append(" => Use [--cpd path To other-path --r --sync] to synchronize the destination with the directory.");
+        help.append("\n\t");
+        help.append(" => Use [--cpd path To other-path --r --sync --checksum --delete] to also compare the content and delete the extra files.");
         console.printf(CONSOLE_FORMAT, help);
 
         return true;
@@ -188,6 +203,10 @@ public class CommandUtils {
         help.append("If you want to move directories into a destination:");
         help.append("\n\t");
         help.append(" => Use [--mvd path other-pat To destination --r] to move directories into a destination.");
+        help.append("\n\t");
+        help.append("A recursive move on the same file system renames the directory, across devices the files are copied in parallel:");
+        help.append("\n\t");
+        help.append(" => Use [--mvd path To destination --r --jobs 8] to move across devices with 8 workers.");
         console.printf(CONSOLE_FORMAT, help);
 
         return true;
@@ -214,6 +233,10 @@ public class CommandUtils {
         help.append("If you want include all the content into a compressed file:");
         help.append("\n\t");
         help.append(" => Use [--cm path to other.zip --r] to compress recursively the content of the path into a compressed file.");
+        help.append("\n\t");
+        help.append("The files are compressed in parallel, by default one worker per processor:");
+        help.append("\n\t");
+        help.append(" => Use [--cm path to other.zip --r --jobs 8 --level 9] to compress with 8 workers and the best compression.");
         console.printf(CONSOLE_FORMAT, help);
 
         return true;
@@ -230,6 +253,14 @@ public class CommandUtils {
         help.append("If you want include de-compressed multiple compressed files into a destination:");
         help.append("\n\t");
         help.append(" => Use [--dcm path.zip othet.zip to path] to de-compress the content of the compressed files into a destination.");
+        help.append("\n\t");
+        help.append("If you want to de-compress into multiple destinations:");
+        help.append("\n\t");
+        help.append(" => Use [--dcm path.zip To path other-path] to de-compress the content of the compressed file into each destination.");
+        help.append("\n\t");
+        help.append("The entries are extracted in parallel, to change the number of workers:");
+        help.append("\n\t");
+        help.append(" => Use [--dcm path.zip To path --jobs 8] to de-compress with 8 workers.");
         console.printf(CONSOLE_FORMAT, help);
 
         return true;
@@ -261,6 +292,40 @@ public class CommandUtils {
         help.append("If you want to read the entire file from a starting point:");
         help.append("\n\t");
         help.append(" => Use [--rlr path.txt 2:0] to read the entire file.");
+        help.append("\n\t");
+        help.append("The line offsets are stored on ~/.filemanager/lines, so big files are read from the range start.");
+        console.printf(CONSOLE_FORMAT, help);
+
+        return true;
+    }
+    public boolean showHelpOnPrintLastLines() {
+        String prefix = "--tail";
+        String value = getPrefixValue(prefix);
+        if(value == null || !value.equals("--h")) return false;
+
+        StringBuilder help = new StringBuilder();
+        help.append("Use [--tail path.txt] to read the last 10 lines of a file.");
+        help.append("\n\t");
+        help.append("If you want to read a different number of lines:");
+        help.append("\n\t");
+        help.append(" => Use [--tail path.txt 50] to read the last 50 lines.");
+        console.printf(CONSOLE_FORMAT, help);
+
+        return true;
+    }
+    public boolean showHelpOnHash() {
+        String prefix = "--hash";
+        String value = getPrefixValue(prefix);
+        if(value == null || !value.equals("--h")) return false;
+
+        StringBuilder help = new StringBuilder();
+        help.append("Use [--hash path] to print the CRC-32C of the immediate files of the path.");
+        help.append("\n\t");
+        help.append("If you want to hash all the files of the path:");
+        help.append("\n\t");
+        help.append(" => Use [--hash path --r --jobs 8] to hash recursively with 8 workers.");
+        help.append("\n\t");
+        help.append("The hashes are cached on ~/.filemanager/hashes.cache, only new or changed files are read again.");
         console.printf(CONSOLE_FORMAT, help);
 
         return true;
@@ -276,6 +341,22 @@ public class CommandUtils {
         help.append("If you want to search the word in multiple files:");
         help.append("\n\t");
         help.append(" => Use [--sf name path.txt other.txt] to search a word in those files.");
+        help.append("\n\t");
+        help.append("If the files are too big to decode every line:");
+        help.append("\n\t");
+        help.append(" => Use [--sf name path.log --mmap] to scan the memory-mapped file bytes.");
+        help.append("\n\t");
+        help.append("If you want to search many words in one pass:");
+        help.append("\n\t");
+        help.append(" => Use [--sf name,other path.txt] or [--sf @words.txt path.txt] with one word per line.");
+        help.append("\n\t");
+        help.append("Each matching line shows the words it contains.");
+        help.append("\n\t");
+        help.append("To search any text instead of whole words, or a regular expression:");
+        help.append("\n\t");
+        help.append(" => Use [--sf \"some text\" path.txt --mode literal] or [--sf \"warn|err(or)?\" path.txt --mode regex],");
+        help.append("\n\t");
+        help.append("like words they ignore the case of ASCII letters only.");
         console.printf(CONSOLE_FORMAT, help);
 
         return true;
@@ -295,6 +376,106 @@ public class CommandUtils {
         help.append("If you want to search the word in multiple paths:");
         help.append("\n\t");
         help.append(" => Use [--sd name path other-path --r] to search a word in multiple paths");
+        help.append("\n\t");
+        help.append("The files are searched in parallel, to change the number of workers:");
+        help.append("\n\t");
+        help.append(" => Use [--sd name path --r --jobs 8] to search the word with 8 workers.");
+        help.append("\n\t");
+        help.append("If you want the results as they are found instead of the directory order:");
+        help.append("\n\t");
+        help.append(" => Use [--sd name path --r --unordered] to print each file result when its ready.");
+        help.append("\n\t");
+        help.append("If the files are too big to decode every line:");
+        help.append("\n\t");
+        help.append(" => Use [--sd name path --r --mmap] to scan the memory-mapped file bytes.");
+        help.append("\n\t");
+        help.append("If you want to search many words in one pass:");
+        help.append("\n\t");
+        help.append(" => Use [--sd name,other path --r] or [--sd @words.txt path --r] with one word per line.");
+        help.append("\n\t");
+        help.append("Each matching line shows the words it contains.");
+        help.append("\n\t");
+        help.append("To search any text instead of whole words, or a regular expression:");
+        help.append("\n\t");
+        help.append(" => Use [--sd \"some text\" path --r --mode literal] or [--sd \"warn|err(or)?\" path --r --mode regex],");
+        help.append("\n\t");
+        help.append("like words they ignore the case of ASCII letters only.");
+        help.append("\n\t");
+        help.append("To repeat searches on a big tree, index its words once with [--index build path --text],");
+        help.append("\n\t");
+        help.append("then only the files that changed since then are searched again.");
+        console.printf(CONSOLE_FORMAT, help);
+
+        return true;
+    }
+    public boolean showHelpOnBatch() {
+        String prefix = "--batch";
+        String value = getPrefixValue(prefix);
+        if(value == null || !value.equals("--h")) return false;
+
+        StringBuilder help = new StringBuilder();
+        help.append("Use [--batch commands.txt] to run the commands of the file, one command per line like: --cpd src To backup --r");
+        help.append("\n\t");
+        help.append("Empty lines and lines starting with # are skipped, relative paths are resolved from the file directory.");
+        help.append("\n\t");
+        help.append("Commands that don't share paths run in parallel:");
+        help.append("\n\t");
+        help.append(" => Use [--batch commands.txt --jobs 4] to run up to 4 commands at the same time.");
+        console.printf(CONSOLE_FORMAT, help);
+
+        return true;
+    }
+    public boolean showHelpOnIndex() {
+        String prefix = "--index";
+        String value = getPrefixValue(prefix);
+        if(value == null || !value.equals("--h")) return false;
+
+        StringBuilder help = new StringBuilder();
+        help.append("Use [--index build path] to store the paths, sizes and modification times of the directory tree.");
+        help.append("\n\t");
+        help.append("If the tree changed since it was indexed:");
+        help.append("\n\t");
+        help.append(" => Use [--index update path] to list again only the directories that changed, without path every index is updated.");
+        help.append("\n\t");
+        help.append("If you want to index the words of the files too:");
+        help.append("\n\t");
+        help.append(" => Use [--index build path --text --jobs 8] so --sd and --sf only read the files that changed since then.");
+        help.append("\n\t");
+        help.append("The indexes are stored on ~/.filemanager/index, use --find to search the paths.");
+        console.printf(CONSOLE_FORMAT, help);
+
+        return true;
+    }
+    public boolean showHelpOnFind() {
+        String prefix = "--find";
+        String value = getPrefixValue(prefix);
+        if(value == null || !value.equals("--h")) return false;
+
+        StringBuilder help = new StringBuilder();
+        help.append("Use [--find text] to print the indexed paths that contain the text, ignoring the case.");
+        help.append("\n\t");
+        help.append("If you want to match the file names with a glob:");
+        help.append("\n\t");
+        help.append(" => Use [--find \"*.java\" src] to search only the index of src, quote the glob so the shell doesn't expand it.");
+        help.append("\n\t");
+        help.append("The paths come from the index built with --index, update it to see the latest changes.");
+        console.printf(CONSOLE_FORMAT, help);
+
+        return true;
+    }
+    public boolean showHelpOnWatch() {
+        String prefix = "--watch";
+        String value = getPrefixValue(prefix);
+        if(value == null || !value.equals("--h")) return false;
+
+        StringBuilder help = new StringBuilder();
+        help.append("Use [--watch path] to print the changes of the directory tree until the program is stopped.");
+        help.append("\n\t");
+        help.append("Each change is a line with the change, the type, the size and the path, like:");
+        help.append("\n\t");
+        help.append(" => + f 120 path/new.txt, ~ f 240 path/new.txt, - d 4096 path/old");
+        help.append("\n\t");
+        help.append("The changes are: + created, - deleted, ~ modified. The types are: d directory, f file, o other.");
         console.printf(CONSOLE_FORMAT, help);
 
         return true;
@@ -0,0 +1,148 @@
+package org.example.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Parallel zip compressor used by the compress command.
+ * <p> Workers deflate the files into memory, or into a temporary file when they are big,
+ * and the calling thread writes the entries in walk order with a {@link ZipWriter}.
+ */
+public class CompressUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+    /**
+     * number of deflated entries each worker can have waiting to be written.
+     */
+    private static final int IN_FLIGHT_PER_JOB = 4;
+    /**
+     * files bigger than this are deflated into a temporary file instead of memory.
+     */
+    private static final long IN_MEMORY_LIMIT = 8 << 20;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private FileUtils fileUtils;
+    private int jobs;
+    private int compression;
+
+    /**
+     * @param jobs - the number of workers deflating files at the same time.
+     * @param compression - the deflate level from 0 to 9, -1 for the default level.
+     */
+    public CompressUtils(FileUtils fileUtils, int jobs, int compression) {
+        this.fileUtils = fileUtils;
+        this.jobs = jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+        this.compression = compression >= 0 && compression <= 9 ? compression : Deflater.DEFAULT_COMPRESSION;
+    }
+    /**
+     * Compress a directory into a zip file.
+     * @param sourcePath - the path to compress.
+     * @param targetPath - the compressed file path.
+     * @param level - the nested level to reach.
+     */
+    public void compressPath(Path sourcePath, Path targetPath, int level) {
+        WalkPipeline<ZipWriter.Entry> pipeline = new WalkPipeline<>("compress", jobs, IN_FLIGHT_PER_JOB, true);
+        // the compressed file can be inside the source path, don't add it to itself.
+        Path compressed = targetPath.toAbsolutePath().normalize();
+        // the temporary files of the entries that are discarded or never written.
+        Queue<Path> spilled = new ConcurrentLinkedQueue<>();
+        try(ZipWriter writer = new ZipWriter(targetPath)) {
+            pipeline.run(
+                    () -> fileUtils.getLazilyDirEntries(sourcePath.toString(), level)
+                        .filter(entry -> entry.isRegularFile() && !entry.path().toAbsolutePath().normalize().equals(compressed)),
+                    // replace "\\" with "/" by zip standards.
+                    entry -> deflate(entry, sourcePath.relativize(entry.path()).toString().replace("\\", "/"), spilled),
+                    (entry, e) -> {
+                        console.printf(CONSOLE_FORMAT, "[Error] Couldn't compress => " + entry.path() + " " + e);
+                        return null;
+                    },
+                    entry -> {
+                        writer.write(entry);
+                        console.info("[Info] Adding %s to the compressed file %s", entry.name(), targetPath);
+                        return true;
+                    }
+            );
+            if(writer.getEntries() == 0) {
+                console.printf(CONSOLE_FORMAT, "[Error] Empty file provided");
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        } finally {
+            // the written ones are already deleted by the writer.
+            for(Path dataFile: spilled) {
+                deleteDataFile(dataFile);
+            }
+        }
+    }
+    /**
+     * Deflate a file computing its CRC-32 on the way.
+     * @param file - the file to deflate.
+     * @param name - the entry name.
+     * @param spilled - collects the temporary file when the file is deflated into one.
+     * @return the deflated entry, null if the file can't be read.
+     */
+    private ZipWriter.Entry deflate(PathEntry file, String name, Queue<Path> spilled) {
+        Path filePath = file.path();
+        BasicFileAttributes attributes = file.attributes();
+        Path dataFile = null;
+        Deflater deflater = new Deflater(compression, true);
+        try {
+            ByteArrayOutputStream memory = null;
+            OutputStream data;
+            if(attributes.size() > IN_MEMORY_LIMIT) {
+                dataFile = Files.createTempFile("filemanager-", ".deflate");
+                spilled.add(dataFile);
+                data = Files.newOutputStream(dataFile);
+            } else {
+                memory = new ByteArrayOutputStream((int) Math.max(32, attributes.size() / 2));
+                data = memory;
+            }
+            CRC32 crc = new CRC32();
+            long size = 0;
+            byte[] input = new byte[BUFFER_SIZE];
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try(InputStream in = Files.newInputStream(filePath); OutputStream out = data) {
+                int read;
+                while((read = in.read(input)) != -1) {
+                    crc.update(input, 0, read);
+                    size += read;
+                    deflater.setInput(input, 0, read);
+                    while(!deflater.needsInput()) {
+                        out.write(buffer, 0, deflater.deflate(buffer));
+                    }
+                }
+                deflater.finish();
+                while(!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+            }
+            return new ZipWriter.Entry(
+                    name, crc.getValue(), size, deflater.getBytesWritten(), attributes.lastModifiedTime().toMillis(),
+                    memory != null ? memory.toByteArray() : null, dataFile
+            );
+        } catch(IOException e) {
+            e.printStackTrace();
+            if(dataFile != null) deleteDataFile(dataFile);
+            return null;
+        } finally {
+            deflater.end();
+        }
+    }
+    private static void deleteDataFile(Path dataFile) {
+        try {
+            Files.deleteIfExists(dataFile);
+        } catch(IOException ignore) {
+            // the temporary directory is cleaned by the system.
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Parallel copy engine used by the directory copy command.
+ * <p> Each directory of the skeleton is created before its files, which are copied by a bounded pool of workers.
+ */
+public class CopyUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+    /**
+     * number of files each worker can have waiting on the queue.
+     */
+    private static final int IN_FLIGHT_PER_JOB = 64;
+
+    private int jobs;
+    private FileUtils fileUtils;
+    /**
+     * deletes the target paths of sync without its own summary.
+     */
+    private DeleteUtils deleteUtils;
+
+    private AtomicLong copiedFiles = new AtomicLong();
+    private AtomicLong copiedBytes = new AtomicLong();
+    private AtomicLong failedFiles = new AtomicLong();
+    private AtomicLong unchangedFiles = new AtomicLong();
+
+    public CopyUtils(FileUtils fileUtils, int jobs) {
+        this.fileUtils = fileUtils;
+        this.jobs = jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+        this.deleteUtils = new DeleteUtils(this.jobs);
+    }
+    public CopyUtils(FileUtils fileUtils) {
+        this(fileUtils, Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * Copy a directory into a target path using the worker pool.
+     * <p> the tree is walked in pre-order, so each directory is created before any of its files is handed to a worker.
+     * <p> at most {@link #IN_FLIGHT_PER_JOB} files per worker are queued, so memory stays flat regardless of the tree size.
+     * @param sourcePath - the directory path to copy.
+     * @param targetPath - the destination where to copy the source directory.
+     * @param level - the nested level to reach.
+     */
+    public void copyDirToTarget(Path sourcePath, Path targetPath, int level) {
+        walk(sourcePath, targetPath, level, false, this::copyFile);
+        printSummary(targetPath, "Copied");
+    }
+    /**
+     * Synchronize a directory into a target path using the worker pool.
+     * <p> only the files missing on the target or with a different size or modification time are copied, existing files are replaced.
+     * <p> a target path of another type than its source, like a directory where the source has a file or a link, is deleted first.
+     * The symbolic links of the target are never followed, they are replaced or deleted as links.
+     * @param sourcePath - the directory path to synchronize.
+     * @param targetPath - the destination where to synchronize the source directory.
+     * @param level - the nested level to reach.
+     * @param checksum - true to also compare the CRC-32C of the files with the same size and modification time, the hashes are cached.
+     * @param delete - true to delete the target files and directories that are not on the source.
+     */
+    public void syncDirToTarget(Path sourcePath, Path targetPath, int level, boolean checksum, boolean delete) {
+        walk(sourcePath, targetPath, level, true, (entry, destination) -> syncFile(entry, destination, checksum));
+        if(delete) deleteExtras(sourcePath, targetPath, level);
+        if(checksum) HashCache.getInstance().save();
+        printSummary(targetPath, "Copied");
+    }
+    /**
+     * Move a directory into a target path on another device using the worker pool.
+     * <p> each file is copied, verified against its source and only then deleted from the source.
+     * <p> after a recursive move the empty source directories are deleted, the files that failed are kept.
+     * @param sourcePath - the directory path to move.
+     * @param targetPath - the destination of the directory content.
+     * @param level - the nested level to reach.
+     */
+    public void moveDirToTarget(Path sourcePath, Path targetPath, int level) {
+        walk(sourcePath, targetPath, level, false, this::moveFile);
+        if(level == 0) fileUtils.deleteEmptyDirectories(sourcePath);
+        printSummary(targetPath, "Moved");
+    }
+    /**
+     * walk the source creating the directories on the target and hand each file to the workers.
+     * @param replace - true to replace the target paths that aren't directories where the source has one.
+     * @param action - receives the source file entry and its destination.
+     */
+    private void walk(Path sourcePath, Path targetPath, int level, boolean replace, BiConsumer<PathEntry, Path> action) {
+        ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        Semaphore inFlight = new Semaphore(jobs * IN_FLIGHT_PER_JOB);
+        try(Stream<PathEntry> entries = fileUtils.getLazilyDirEntries(sourcePath.toString(), level)) {
+            Iterator<PathEntry> it = entries.iterator();
+            while(it.hasNext()) {
+                PathEntry entry = it.next();
+                Path destination = targetPath.resolve(sourcePath.relativize(entry.path()));
+                if(entry.isDirectory()) {
+                    // the target path itself is followed when its a link.
+                    createDirectory(destination, replace && !destination.equals(targetPath));
+                    continue;
+                }
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        action.accept(entry, destination);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(Exception e) {
+            e.printStackTrace();
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+    }
+    private void createDirectory(Path destination, boolean replace) {
+        if(replace) {
+            try {
+                replaceOtherType(destination, true);
+            } catch(IOException e) {
+                failedFiles.incrementAndGet();
+                e.printStackTrace();
+                return;
+            }
+        }
+        if(!Files.isDirectory(destination)) fileUtils.createDirectory(destination.toString());
+    }
+    /**
+     * Copy a single file and record it on the summary counters.
+     * @param source - the file to copy.
+     * @param destination - the resolved destination file.
+     */
+    private void copyFile(PathEntry source, Path destination) {
+        Path sourcePath = source.path();
+        try {
+            long size = TransferUtils.copy(sourcePath, source.attributes(), destination, false);
+            copiedFiles.incrementAndGet();
+            copiedBytes.addAndGet(size);
+            console.info("[Info] Copy %s %n\tinto \t=>[%s]", sourcePath, destination);
+        } catch(IOException e) {
+            failedFiles.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Copy a single file replacing the destination, verify the copy and delete the source file.
+     * @param source - the file to move.
+     * @param destination - the resolved destination file.
+     */
+    private void moveFile(PathEntry source, Path destination) {
+        Path sourcePath = source.path();
+        try {
+            long size = TransferUtils.copy(sourcePath, source.attributes(), destination, true);
+            if(Files.size(destination) != size || HashCache.hash(sourcePath) != HashCache.hash(destination)) {
+                throw new IOException("The copy of " + sourcePath + " doesn't match its source");
+            }
+            Files.delete(sourcePath);
+            copiedFiles.incrementAndGet();
+            copiedBytes.addAndGet(size);
+            console.info("[Info] Move %s %n\tinto \t=>[%s]", sourcePath, destination);
+        } catch(IOException e) {
+            failedFiles.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Copy a single file only if its new or changed, replacing the destination.
+     * @param source - the file to synchronize.
+     * @param destination - the resolved destination file.
+     * @param checksum - true to compare the content of the files that look unchanged.
+     */
+    private void syncFile(PathEntry source, Path destination, boolean checksum) {
+        Path sourcePath = source.path();
+        try {
+            BasicFileAttributes target = replaceOtherType(destination, false);
+            if(target != null && isUnchanged(source, destination, target, checksum)) {
+                unchangedFiles.incrementAndGet();
+                return;
+            }
+            long size = TransferUtils.copy(sourcePath, source.attributes(), destination, true);
+            copiedFiles.incrementAndGet();
+            copiedBytes.addAndGet(size);
+            console.info("[Info] Sync %s %n\tinto \t=>[%s]", sourcePath, destination);
+        } catch(IOException e) {
+            failedFiles.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+    /**
+     * delete the target path when its type doesn't match the source, without following the target links.
+     * @param directory - true if the source is a directory.
+     * @return the attributes of the target path, null if it doesn't exist or it was deleted.
+     */
+    private BasicFileAttributes replaceOtherType(Path destination, boolean directory) throws IOException {
+        BasicFileAttributes target;
+        try {
+            target = Files.readAttributes(destination, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch(NoSuchFileException e) {
+            return null;
+        }
+        if(directory ? target.isDirectory() : target.isRegularFile()) return target;
+        if(!deleteUtils.deletePath(destination)) throw new IOException("Couldn't replace " + destination);
+        return null;
+    }
+    private boolean isUnchanged(PathEntry source, Path destination, BasicFileAttributes target, boolean checksum) throws IOException {
+        if(source.size() != target.size()) return false;
+        if(source.attributes().lastModifiedTime().toMillis() != target.lastModifiedTime().toMillis()) return false;
+        return !checksum || fileUtils.getFileHash(source.path(), source.attributes()) == fileUtils.getFileHash(destination, target);
+    }
+    /**
+     * delete the target files and directories missing on the source.
+     * <p> the target is walked without following its links, so a link is deleted as a link and its target is never visited.
+     * <p> the extras are collected first, the content of an extra directory is deleted with it.
+     */
+    private void deleteExtras(Path sourcePath, Path targetPath, int level) {
+        List<Path> extras = new ArrayList<>();
+        try(Stream<PathEntry> entries = fileUtils.getLazilyDirEntries(targetPath.toString(), level, false)) {
+            Iterator<PathEntry> it = entries.iterator();
+            Path extraDirectory = null;
+            while(it.hasNext()) {
+                PathEntry entry = it.next();
+                Path p = entry.path();
+                if(extraDirectory != null && p.startsWith(extraDirectory)) continue;
+                if(Files.exists(sourcePath.resolve(targetPath.relativize(p)), LinkOption.NOFOLLOW_LINKS)) continue;
+                extras.add(p);
+                extraDirectory = entry.isDirectory() ? p : null;
+            }
+        } catch(Exception e) {
+            e.printStackTrace();
+        }
+        for(Path p: extras) {
+            deleteUtils.deletePath(p);
+        }
+    }
+    private void awaitTermination(ExecutorService executor) {
+        try {
+            while(!executor.awaitTermination(1, TimeUnit.MINUTES));
+        } catch(InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    /**
+     * @param action - the past verb of the operation shown on the summary.
+     */
+    private void printSummary(Path targetPath, String action) {
+        console.printf(CONSOLE_FORMAT, String.format(
+                    "[Info] %s %d files (%d bytes) into %s using %d jobs",
+                    action, copiedFiles.get(), copiedBytes.get(), targetPath, jobs
+        ));
+        long deletedPaths = deleteUtils.getDeletedPaths();
+        if(unchangedFiles.get() > 0 || deletedPaths > 0) {
+            console.printf(CONSOLE_FORMAT, String.format(
+                        "[Info] Skipped %d unchanged files, deleted %d extra paths", unchangedFiles.get(), deletedPaths
+            ));
+        }
+        if(failedFiles.get() > 0) {
+            console.printf(CONSOLE_FORMAT, String.format("[Error] %d files failed", failedFiles.get()));
+        }
+        if(deleteUtils.getFailedPaths() > 0) {
+            console.printf(CONSOLE_FORMAT, String.format("[Error] %d paths couldn't be deleted", deleteUtils.getFailedPaths()));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Parallel zip extractor used by the de-compress command.
+ * <p> {@link ZipFile} allows concurrent reads of its entries, so each entry is extracted by a pool of workers.
+ * <p> The central directory is read once and reused for every target.
+ */
+public class DecompressUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+
+    private int jobs;
+
+    private AtomicLong extractedFiles = new AtomicLong();
+    private AtomicLong failedFiles = new AtomicLong();
+    /**
+     * the directories already created, so each parent is created only once.
+     */
+    private Map<Path, Path> directories = new ConcurrentHashMap<>();
+
+    public DecompressUtils(int jobs) {
+        this.jobs = jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+    }
+    /**
+     * Decompress a compressed file into each target path.
+     * <p> every entry is checked against zip attacks before any file is written to a target.
+     * @param filePath - the file to decompress.
+     * @param targets - the paths where to store the decompressed files.
+     */
+    public void deCompressFile(Path filePath, List<Path> targets) {
+        try(ZipFile z = new ZipFile(filePath.toFile())) {
+            console.printf(CONSOLE_FORMAT, "[Info] Decompressing file...");
+            List<? extends ZipEntry> entries = Collections.list(z.entries());
+            for(Path t: targets) {
+                Path targetPath = t.toAbsolutePath().normalize();
+                List<Path> destinations = new ArrayList<>(entries.size());
+                for(ZipEntry entry: entries) {
+                    Path destination = targetPath.resolve(entry.getName()).normalize();
+                    // prevent zip attacks.
+                    if(!destination.startsWith(targetPath)) throw new IOException("Bad zip entry " + entry);
+                    destinations.add(destination);
+                }
+                extract(z, entries, destinations);
+                printSummary(t);
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    private void extract(ZipFile z, List<? extends ZipEntry> entries, List<Path> destinations) {
+        extractedFiles.set(0);
+        failedFiles.set(0);
+        ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        try {
+            for(int i=0; i<entries.size(); ++i) {
+                ZipEntry entry = entries.get(i);
+                Path destination = destinations.get(i);
+                executor.execute(() -> extractEntry(z, entry, destination));
+            }
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+    }
+    /**
+     * Extract a single entry, creating its parent directory if its not already created.
+     * @param z - the compressed file.
+     * @param entry - the entry to extract.
+     * @param destination - the resolved destination of the entry.
+     */
+    private void extractEntry(ZipFile z, ZipEntry entry, Path destination) {
+        try {
+            if(entry.isDirectory()) {
+                createDirectory(destination);
+                return;
+            }
+            Path parent = destination.getParent();
+            if(parent != null) createDirectory(parent);
+            try(InputStream is = z.getInputStream(entry); OutputStream os = Files.newOutputStream(destination)) {
+                console.info("[Info] Transferring files %n\tTo => %s", destination);
+                is.transferTo(os);
+            }
+            extractedFiles.incrementAndGet();
+        } catch(IOException | UncheckedIOException e) {
+            failedFiles.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+    /**
+     * create a directory the first time its requested, concurrent requests of the same directory wait for it.
+     */
+    private void createDirectory(Path directory) {
+        directories.computeIfAbsent(directory, d -> {
+            try {
+                Path cd = Files.createDirectories(d);
+                console.info("[Info] Creating directory %n\t=> %s", cd);
+                return cd;
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    private void awaitTermination(ExecutorService executor) {
+        try {
+            while(!executor.awaitTermination(1, TimeUnit.MINUTES));
+        } catch(InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    private void printSummary(Path targetPath) {
+        console.printf(CONSOLE_FORMAT, String.format(
+                    "[Info] Extracted %d files into %s using %d jobs",
+                    extractedFiles.get(), targetPath, jobs
+        ));
+        if(failedFiles.get() > 0) {
+            console.printf(CONSOLE_FORMAT, String.format("[Error] %d files couldn't be extracted", failedFiles.get()));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+
+/**
+ * Parallel recursive delete used by the delete directory command.
+ * <p> Each directory is a fork-join task that deletes its files, forks its sub directories and deletes itself once they finish,
+ * so the tree is deleted bottom-up without sorting its paths and sibling sub trees are deleted at the same time.
+ * <p> Symbolic links are deleted as links, their target is never visited.
+ */
+public class DeleteUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+
+    private int jobs;
+
+    private AtomicLong deletedFiles = new AtomicLong();
+    private AtomicLong deletedDirectories = new AtomicLong();
+    private AtomicLong failedPaths = new AtomicLong();
+
+    public DeleteUtils(int jobs) {
+        this.jobs = jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+    }
+    /**
+     * Delete a directory and its content.
+     * @param directoryPath - the directory to delete.
+     * @return true if the whole tree was deleted, false otherwise.
+     */
+    public boolean deleteDirectory(Path directoryPath) {
+        invoke(directoryPath);
+        console.printf(CONSOLE_FORMAT, String.format(
+                    "[Info] Deleted %d files and %d directories from %s using %d jobs",
+                    deletedFiles.get(), deletedDirectories.get(), directoryPath, jobs
+        ));
+        if(failedPaths.get() > 0) {
+            console.printf(CONSOLE_FORMAT, String.format("[Error] %d paths couldn't be deleted", failedPaths.get()));
+        }
+        return failedPaths.get() == 0;
+    }
+    /**
+     * Delete a path without printing the summary, a directory is deleted with its content and a link as a link.
+     * <p> the counters add up over the calls.
+     * @param p - the path to delete.
+     * @return true if the path was deleted.
+     */
+    boolean deletePath(Path p) {
+        long failed = failedPaths.get();
+        if(Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+            invoke(p);
+        } else {
+            delete(p, false);
+        }
+        return failedPaths.get() == failed;
+    }
+    /**
+     * @return the number of files and directories deleted.
+     */
+    long getDeletedPaths() {
+        return deletedFiles.get() + deletedDirectories.get();
+    }
+    /**
+     * @return the number of paths that couldn't be deleted.
+     */
+    long getFailedPaths() {
+        return failedPaths.get();
+    }
+    private void invoke(Path directoryPath) {
+        ForkJoinPool pool = new ForkJoinPool(jobs);
+        try {
+            pool.invoke(new DeleteTask(directoryPath));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    /**
+     * @return true if the path was deleted.
+     */
+    private boolean delete(Path p, boolean isDirectory) {
+        try {
+            Files.delete(p);
+            if(isDirectory) {
+                deletedDirectories.incrementAndGet();
+                console.info("[Info] Deleting directory => %s", p);
+            } else {
+                deletedFiles.incrementAndGet();
+                console.info("[Info] Deleting file => %s", p);
+            }
+            return true;
+        } catch(IOException e) {
+            failedPaths.incrementAndGet();
+            e.printStackTrace();
+            return false;
+        }
+    }
+    /**
+     * deletes the content of a directory and then the directory.
+     */
+    @SuppressWarnings("serial")
+    private class DeleteTask extends RecursiveAction {
+        private final Path directory;
+        /**
+         * true if some content couldn't be deleted, the directories above it are kept.
+         */
+        private boolean failed;
+
+        DeleteTask(Path directory) {
+            this.directory = directory;
+        }
+        @Override
+        protected void compute() {
+            List<DeleteTask> directories = new ArrayList<>();
+            try(DirectoryStream<Path> content = Files.newDirectoryStream(directory)) {
+                for(Path p: content) {
+                    if(Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+                        directories.add(new DeleteTask(p));
+                    } else {
+                        delete(p, false);
+                    }
+                }
+            } catch(IOException e) {
+                failed = true;
+                failedPaths.incrementAndGet();
+                e.printStackTrace();
+                return;
+            }
+            invokeAll(directories);
+            for(DeleteTask d: directories) {
+                if(d.failed) failed = true;
+            }
+            if(!failed) delete(directory, true);
+        }
+        private void delete(Path p, boolean isDirectory) {
+            if(!DeleteUtils.this.delete(p, isDirectory)) failed = true;
+        }
+    }
+}
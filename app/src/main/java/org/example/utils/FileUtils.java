@@ -1,30 +1,29 @@
 package org.example.utils;
 
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.function.Function;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.zip.ZipFile;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.Deflater;
 
 import java.io.File;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.IOException;
-import java.io.BufferedOutputStream;
-import java.io.Console;
 import java.nio.file.Path;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.nio.file.FileVisitOption;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.FileVisitResult;
+import java.nio.file.attribute.BasicFileAttributes;
 
 
 public class FileUtils {
-    private static Console console = System.console();
+    private static OutputUtils console = OutputUtils.getInstance();
     private static final String CONSOLE_FORMAT = "%s%n";
     /**
      * transform {@Path} to {@String}
@@ -46,7 +45,7 @@ public class FileUtils {
         try {
             Path p = Files.createDirectories(f.toPath());
             if(p != null) {
-                console.printf(CONSOLE_FORMAT, "[Info] Creating directory => " + getString.apply(p));
+                console.info("[Info] Creating directory => %s", p);
                 return true;
             }
         } catch(IOException e) {
@@ -68,7 +67,7 @@ public class FileUtils {
                 if(parent != null) createDirectory(getString.apply(parent));
             }
             if(path2File.apply(p).createNewFile()) {
-                console.printf(CONSOLE_FORMAT, String.format("[Info] Creating file => %s", getString.apply(p)));
+                console.info("[Info] Creating file => %s", p);
                 return true;
             }
         } catch(IOException e) {
@@ -78,31 +77,18 @@ public class FileUtils {
     }
     /**
      * Deletes a directory if its empty, otherwise you must provide --r to delete it.
+     * <p> the content is deleted bottom-up in parallel, sibling directories are deleted at the same time.
      * @param pathURI - the directory to delete.
      * @param recursively - to delete a directory that isn't empty.
+     * @param jobs - the number of workers deleting the content at the same time.
      */
-    public boolean deleteDirectory(String pathURI, boolean recursively) {
+    public boolean deleteDirectory(String pathURI, boolean recursively, int jobs) {
         File f = new File(pathURI);
         if(!f.isDirectory() || !f.exists()) return false;
+        if(recursively) return new DeleteUtils(jobs).deleteDirectory(f.toPath());
         try {
-            if(recursively && f.listFiles() != null) {
-                // get files to delete.
-                List<Path> paths = listDirContent(pathURI, 0)
-                    .stream()
-                    .sorted(Comparator.reverseOrder())
-                    .toList();
-                for(Path p: paths) {
-                    if(Files.isRegularFile(p) && Files.deleteIfExists(p)) {
-                        console.printf(CONSOLE_FORMAT, "[Info] Deleting file => " + p);
-                    } else if(Files.deleteIfExists(p)) {
-                        console.printf(CONSOLE_FORMAT, "[Info] Deleting directory => " + p);
-                    }
-                }
-            } else {
-                if(Files.deleteIfExists(f.toPath())) {
-                    console.printf(CONSOLE_FORMAT, "[Info] Deleting directory => " + f.toString());
-                    return true;
-                }
+            if(Files.deleteIfExists(f.toPath())) {
+                console.info("[Info] Deleting directory => %s", f);
             }
         } catch(Exception e) {
             e.printStackTrace();
@@ -110,6 +96,14 @@ public class FileUtils {
         }
         return true;
     }
+    /**
+     * Deletes a directory using one worker per available processor.
+     * @param pathURI - the directory to delete.
+     * @param recursively - to delete a directory that isn't empty.
+     */
+    public boolean deleteDirectory(String pathURI, boolean recursively) {
+        return deleteDirectory(pathURI, recursively, Runtime.getRuntime().availableProcessors());
+    }
     /**
      * Deletes a file given the path.
      * @param fileURI - the file to delete.
@@ -119,7 +113,7 @@ public class FileUtils {
         if(!f.isFile()) return false;
         try {
             if(Files.deleteIfExists(f.toPath())) {
-                console.printf(CONSOLE_FORMAT, "[Info] Deleting file => " + f.toString());
+                console.info("[Info] Deleting file => %s", f);
                 return true;
             }
         } catch(IOException e) {
@@ -128,19 +122,96 @@ public class FileUtils {
         return false;
     }
     /**
-     * List directory content by level, if nested level is 0, it will search recursively.
-     * @param pathURI - the path to list its content.
+     * A stream with the directory entries by level, each entry carries the attributes read while walking.
+     * <p> use this with a try-resource to close on end.
+     * <p> if nested level is 0, it will walk recursively.
+     * @param pathURI - the path to walk its content.
      * @param level - the nested level to reach.
-     * @return the list with the path content without filtering directories or files.
+     * @return a stream with the path entries without filtering directories or files, empty if the path can't be walked.
      */
-    public List<Path> listDirContent(String pathURI, int level) {
-        if (level <= 0) level = Integer.MAX_VALUE;
-        try(Stream<Path> p = Files.walk(Paths.get(pathURI), level, FileVisitOption.FOLLOW_LINKS)) {
-            return p.toList();
-        } catch(IOException e) {
-            e.printStackTrace();
+    public Stream<PathEntry> getLazilyDirEntries(String pathURI, int level) {
+        return getLazilyDirEntries(pathURI, level, true);
+    }
+    /**
+     * A stream with the directory entries by level, like {@link #getLazilyDirEntries(String, int)}.
+     * @param pathURI - the path to walk its content.
+     * @param level - the nested level to reach.
+     * @param followLinks - false to return the symbolic links under the path as links, without descending into them.
+     * @return a stream with the path entries without filtering directories or files, empty if the path can't be walked.
+     */
+    public Stream<PathEntry> getLazilyDirEntries(String pathURI, int level, boolean followLinks) {
+        FileWalker walker = new FileWalker(Paths.get(pathURI), level, followLinks);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(walker, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(walker::close);
+    }
+    /**
+     * Get the content hash of a file from the persistent {@link HashCache}.
+     * <p> the file is only read if its new or it changed since it was hashed.
+     * @param filePath - the file to hash.
+     * @return the CRC-32C of the file content.
+     */
+    public int getFileHash(Path filePath) throws IOException {
+        return HashCache.getInstance().getHash(filePath);
+    }
+    /**
+     * Get the content hash of a file with the attributes already read for it.
+     * @param filePath - the file to hash.
+     * @param attributes - the attributes of the file.
+     * @return the CRC-32C of the file content.
+     */
+    public int getFileHash(Path filePath, BasicFileAttributes attributes) throws IOException {
+        return HashCache.getInstance().getHash(filePath, attributes);
+    }
+    /**
+     * Print the content hash of each file of a path.
+     * @param sourcePath - the file or directory to hash.
+     * @param level - the nested level to reach.
+     * @param jobs - the number of workers hashing files at the same time.
+     */
+    public void printHashes(Path sourcePath, int level, int jobs) {
+        if(!Files.exists(sourcePath)) return;
+        new HashUtils(this, HashCache.getInstance(), jobs).printHashes(sourcePath, level);
+    }
+    /**
+     * Write the index of the paths of a directory.
+     * @param rootPath - the directory to index.
+     */
+    public void buildIndex(Path rootPath) {
+        new IndexUtils().buildIndex(rootPath);
+    }
+    /**
+     * Update the index of a directory, listing again only the directories that changed.
+     * @param rootPath - the indexed directory, null to update every index.
+     */
+    public void updateIndex(Path rootPath) {
+        if(rootPath == null) {
+            new IndexUtils().updateIndexes();
+        } else {
+            new IndexUtils().updateIndex(rootPath);
         }
-        return new ArrayList<>();
+    }
+    /**
+     * Write the index of the words of the files of a directory, used by the word search.
+     * @param rootPath - the directory to index.
+     * @param jobs - the number of workers reading files at the same time.
+     */
+    public void buildTextIndex(Path rootPath, int jobs) {
+        new TextIndexUtils(this, jobs).buildTextIndex(rootPath);
+    }
+    /**
+     * Print the changes of a directory tree as they happen, until the program is stopped.
+     * @param rootPath - the directory to watch.
+     */
+    public void watchPath(Path rootPath) {
+        new WatchUtils().watch(rootPath);
+    }
+    /**
+     * Print the indexed paths that match a glob or contain a text.
+     * @param pattern - the glob or the text to search.
+     * @param rootPath - the indexed directory, null to search every index.
+     */
+    public void findInIndex(String pattern, Path rootPath) {
+        new IndexUtils().find(pattern, rootPath);
     }
     /**
      * Copy a file to a destination target.
@@ -150,13 +221,8 @@ public class FileUtils {
     public void copyFileToTarget(Path sourcePath, String targetURI) {
         try {
             Path destination = Paths.get(targetURI).resolve(sourcePath.getFileName());
-            Path result = Files.copy(sourcePath, destination, StandardCopyOption.COPY_ATTRIBUTES);
-            if(result != null) {
-                console.printf(CONSOLE_FORMAT, 
-                        String.format("[Info] copy %s %n\tinto \t=>[%s]",
-                            getString.apply(sourcePath), getString.apply(result))
-                );
-            }
+            TransferUtils.copy(sourcePath, destination, false);
+            console.info("[Info] copy %s %n\tinto \t=>[%s]", sourcePath, destination);
         } catch(IOException e) {
             e.printStackTrace();
         }
@@ -166,27 +232,33 @@ public class FileUtils {
      * @param sourcepath - the directory path to copy.
      * @param targetURI - the destination where to copy the source directory.
      * @param level - the nested level to reach.
+     * @param jobs - the number of workers copying files at the same time.
      */
-    public void copyDirToTarget(Path sourcePath, String targetURI, int level) {
+    public void copyDirToTarget(Path sourcePath, String targetURI, int level, int jobs) {
         if(!path2File.apply(sourcePath).isDirectory() || !path2File.apply(sourcePath).exists()) return;
-        try {
-            Path targetPath = Paths.get(targetURI);
-            // first list and create the directory structure.
-            List<Path> paths = listDirContent(getString.apply(sourcePath), level);
-            for(Path p: paths) {
-                Path relative = sourcePath.relativize(p);
-                Path destination = targetPath.resolve(relative);
-                if(Files.isDirectory(p)) {
-                    createDirectory(getString.apply(destination));
-                } else {
-                    Path r = Files.copy(p, destination, StandardCopyOption.COPY_ATTRIBUTES);
-                    console.printf(CONSOLE_FORMAT, String.format("[Info] Copy %s %n\tinto \t=>[%s]", p, r));
-                }
-            }
-        } catch(Exception e) {
-            e.printStackTrace();
-        }
-
+        new CopyUtils(this, jobs).copyDirToTarget(sourcePath, Paths.get(targetURI), level);
+    }
+    /**
+     * Synchronize a directory into a target path, copying only the new or changed files.
+     * @param sourcePath - the directory path to synchronize.
+     * @param targetURI - the destination where to synchronize the source directory.
+     * @param level - the nested level to reach.
+     * @param jobs - the number of workers comparing and copying files at the same time.
+     * @param checksum - true to compare the content of the files with the same size and modification time.
+     * @param delete - true to delete the target content that is not on the source.
+     */
+    public void syncDirToTarget(Path sourcePath, String targetURI, int level, int jobs, boolean checksum, boolean delete) {
+        if(!path2File.apply(sourcePath).isDirectory() || !path2File.apply(sourcePath).exists()) return;
+        new CopyUtils(this, jobs).syncDirToTarget(sourcePath, Paths.get(targetURI), level, checksum, delete);
+    }
+    /**
+     * Copy a directory into a target path using one worker per available processor.
+     * @param sourcepath - the directory path to copy.
+     * @param targetURI - the destination where to copy the source directory.
+     * @param level - the nested level to reach.
+     */
+    public void copyDirToTarget(Path sourcePath, String targetURI, int level) {
+        copyDirToTarget(sourcePath, targetURI, level, Runtime.getRuntime().availableProcessors());
     }
     /**
      * Move a file from one place to another.
@@ -201,29 +273,118 @@ public class FileUtils {
             Path destination = Paths.get(targetURI).resolve(sourcePath.getFileName());
             Path result = Files.move(sourcePath, destination, StandardCopyOption.REPLACE_EXISTING);
             if(result != null) {
-                console.printf(CONSOLE_FORMAT, String.format("[Info] Move %s %n\tinto \t=>[%s]", sourcePath, result));
+                console.info("[Info] Move %s %n\tinto \t=>[%s]", sourcePath, result);
             }
         } catch(IOException e) {
             e.printStackTrace();
         }
     }
 
-    public void moveDirToTarget(Path sourcePath, String targetURI, int level) {
+    /**
+     * Move a directory content into a target path.
+     * <p> a recursive move on the same file store renames the source directory at once when the target doesn't exist or its empty.
+     * <p> otherwise the files are renamed one by one on the same file store,
+     * or copied in parallel, verified and deleted when the target is on another device.
+     * <p> after a recursive move the empty source directories are deleted.
+     * @param sourcePath - the directory to move.
+     * @param targetURI - the destination of the directory content.
+     * @param level - the nested level to reach.
+     * @param jobs - the number of workers moving files across devices at the same time.
+     */
+    public void moveDirToTarget(Path sourcePath, String targetURI, int level, int jobs) {
         if(!path2File.apply(sourcePath).exists()) return;
+        Path targetPath = Paths.get(targetURI);
+        boolean sameFileStore = isSameFileStore(sourcePath, targetPath);
+        if(level == 0 && sameFileStore && renameDirectory(sourcePath, targetPath)) return;
+        if(sameFileStore) {
+            moveDirContent(sourcePath, targetPath, level);
+            if(level == 0) deleteEmptyDirectories(sourcePath);
+        } else {
+            new CopyUtils(this, jobs).moveDirToTarget(sourcePath, targetPath, level);
+        }
+    }
+    /**
+     * Move a directory content into a target path using one worker per available processor.
+     * @param sourcePath - the directory to move.
+     * @param targetURI - the destination of the directory content.
+     * @param level - the nested level to reach.
+     */
+    public void moveDirToTarget(Path sourcePath, String targetURI, int level) {
+        moveDirToTarget(sourcePath, targetURI, level, Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * Rename the source directory as the target with a single atomic move.
+     * @return true if the directory was renamed, false if the move has to be done file by file.
+     */
+    private boolean renameDirectory(Path sourcePath, Path targetPath) {
+        // the target can't be renamed inside the source.
+        if(targetPath.toAbsolutePath().normalize().startsWith(sourcePath.toAbsolutePath().normalize())) return false;
         try {
-            Path targetPath = Paths.get(targetURI);
-            // first list and create the directory structure.
-            List<Path> paths = listDirContent(getString.apply(sourcePath), level);
-            for(Path p: paths) {
+            Path parent = targetPath.toAbsolutePath().getParent();
+            if(parent != null) Files.createDirectories(parent);
+            Path r = Files.move(sourcePath, targetPath, StandardCopyOption.ATOMIC_MOVE);
+            console.info("[Info] Rename %s %n\tinto \t=>[%s]", sourcePath, r);
+            return true;
+        } catch(IOException e) {
+            // a target with content or a failed rename fallback to the move of each file.
+            return false;
+        }
+    }
+    private void moveDirContent(Path sourcePath, Path targetPath, int level) {
+        // create the directory structure while walking the tree.
+        try(Stream<PathEntry> entries = getLazilyDirEntries(getString.apply(sourcePath), level)) {
+            Iterator<PathEntry> it = entries.iterator();
+            while(it.hasNext()) {
+                PathEntry entry = it.next();
+                Path p = entry.path();
+                // the destination is created while walking, don't move it again if its inside the source.
+                if(p.startsWith(targetPath) && !p.equals(sourcePath)) continue;
                 Path relative = sourcePath.relativize(p);
                 Path destination = targetPath.resolve(relative);
-                if(Files.isDirectory(p)) {
+                if(entry.isDirectory()) {
                     createDirectory(getString.apply(destination));
                 } else {
                     Path r = Files.move(p, destination, StandardCopyOption.REPLACE_EXISTING);
-                    console.printf(CONSOLE_FORMAT, String.format("[Info] Move %s %n\tinto \t=>[%s]", p, r));
+                    console.info("[Info] Move %s %n\tinto \t=>[%s]", p, r);
                 }
             }
+        } catch(Exception e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * @return true if the source and the nearest existing parent of the target are on the same file store.
+     */
+    private static boolean isSameFileStore(Path sourcePath, Path targetPath) {
+        Path existing = targetPath.toAbsolutePath().normalize();
+        while(existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        if(existing == null) return false;
+        try {
+            return Files.getFileStore(sourcePath).equals(Files.getFileStore(existing));
+        } catch(IOException e) {
+            return false;
+        }
+    }
+    /**
+     * Delete the empty directories of a tree bottom-up, the directories with content are kept.
+     * @param directoryPath - the root of the tree.
+     */
+    void deleteEmptyDirectories(Path directoryPath) {
+        try {
+            Files.walkFileTree(directoryPath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult postVisitDirectory(Path p, IOException e) {
+                    try {
+                        Files.delete(p);
+                        console.info("[Info] Deleting directory => %s", p);
+                    } catch(IOException ignore) {
+                        // the directory still has content.
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
         } catch(IOException e) {
             e.printStackTrace();
         }
@@ -247,73 +408,43 @@ public class FileUtils {
     }
     /**
      * Compress a directory into a zip file.
+     * <p> the files are deflated in parallel and written in walk order.
+     * @param sourcePath - the path to compress.
+     * @param targetPath - the compressed file path.
+     * @param level - the nested level to reach.
+     * @param jobs - the number of workers deflating files at the same time.
+     * @param compression - the deflate level from 0 to 9, -1 for the default level.
+     */
+    public void compreessPath(Path sourcePath, Path targetPath, int level, int jobs, int compression) {
+        new CompressUtils(this, jobs, compression).compressPath(sourcePath, targetPath, level);
+    }
+    /**
+     * Compress a directory into a zip file using one worker per available processor and the default level.
      * @param sourcePath - the path to compress.
      * @param targetPath - the compressed file path.
      * @param level - the nested level to reach.
      */
     public void compreessPath(Path sourcePath, Path targetPath, int level) {
-        try(ZipOutputStream output = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(targetPath)))) {
-            List<Path> paths = listDirContent(getString.apply(sourcePath), level)
-                .stream()
-                .filter(Files::isRegularFile)
-                .toList();
-            if(paths.isEmpty()) {
-                console.printf(CONSOLE_FORMAT, "[Error] Empty file provided");
-                return;
-            }
-            for(Path p: paths) {
-                Path relative = sourcePath.relativize(p);
-                // replace "\\" with "/" by zip standards.
-                ZipEntry entry = new ZipEntry(getString.apply(relative).replace("\\", "/"));
-                console.printf(CONSOLE_FORMAT, 
-                        String.format(
-                            "[Info] Adding %s to the compressed file %s",
-                            getString.apply(relative),
-                            getString.apply(targetPath)
-                        )
-                );
-                output.putNextEntry(entry);
-                // copy files into zip
-                Files.copy(p, output);
-                output.closeEntry();
-            }
-        } catch(IOException e) {
-            e.printStackTrace();
-        }
+        compreessPath(sourcePath, targetPath, level, Runtime.getRuntime().availableProcessors(), Deflater.DEFAULT_COMPRESSION);
     }
     /**
-     * decompress a compressed file into a target path.
+     * decompress a compressed file into each target path.
+     * <p> the entries are extracted in parallel and the compressed file entries are read only once.
      * @param fileURI - the file to decompress.
-     * @param targetPath - the path where to store the decompressed files
+     * @param targets - the paths where to store the decompressed files.
+     * @param jobs - the number of workers extracting entries at the same time.
      */
-    public void deCompressFile(String fileURI, Path targetPath) {
+    public void deCompressFile(String fileURI, List<Path> targets, int jobs) {
         File f = new File(fileURI);
         if(!f.isFile() && !f.exists()) return;
-        try(ZipFile z = new ZipFile(f)) {
-            console.printf(CONSOLE_FORMAT, "[Info] Decompressing file...");
-            Enumeration<? extends ZipEntry> zipEntries = z.entries();
-            while(zipEntries.hasMoreElements()) {
-                ZipEntry entry = zipEntries.nextElement();
-                Path destination = targetPath.resolve(entry.getName()).normalize();
-                // prevent zip attacks.
-                if(!destination.startsWith(targetPath)) throw new IOException("Bad zip entry " + entry);
-
-                // create directory
-                Path parent = destination.getParent();
-                if(parent != null) {
-                    Path cd = Files.createDirectories(parent);
-                    console.printf(CONSOLE_FORMAT, "[Info] Creating directory %n\t=> " + cd);
-                }
-
-                // extract file
-                try(InputStream is = z.getInputStream(entry); OutputStream os = Files.newOutputStream(destination)) {
-                    console.printf(CONSOLE_FORMAT, "[Info] Transferring files %n\tTo => " + destination);
-                    is.transferTo(os);
-                }
-
-            }
-        } catch(IOException e) {
-            e.printStackTrace();
-        }
+        new DecompressUtils(jobs).deCompressFile(f.toPath(), targets);
+    }
+    /**
+     * decompress a compressed file into a target path using one worker per available processor.
+     * @param fileURI - the file to decompress.
+     * @param targetPath - the path where to store the decompressed files
+     */
+    public void deCompressFile(String fileURI, Path targetPath) {
+        deCompressFile(fileURI, List.of(targetPath), Runtime.getRuntime().availableProcessors());
     }
 }
@@ -0,0 +1,153 @@
+package org.example.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Pre-order walker of a file tree that reads the attributes of each path only once.
+ * <p> Each entry carries its {@link BasicFileAttributes}, so the consumers don't need to stat the path again.
+ * <p> The symbolic links are followed like {@link java.nio.file.FileVisitOption#FOLLOW_LINKS},
+ * a broken link is returned with the attributes of the link, and a directory that links back to one of its parents is skipped.
+ * <p> When the links aren't followed each link is returned with its own attributes and never descended, only the start path is followed.
+ * <p> A directory that can't be read is reported and skipped, the rest of the tree is still walked.
+ */
+public final class FileWalker implements Iterator<PathEntry>, AutoCloseable {
+    private static OutputUtils console = OutputUtils.getInstance();
+
+    /**
+     * an open directory with the depth of its children.
+     */
+    private record Frame(DirectoryStream<Path> stream, Iterator<Path> iterator, Object fileKey, int depth) {}
+
+    private final Path start;
+    private final int maxDepth;
+    private final boolean followLinks;
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private boolean started;
+    private PathEntry next;
+
+    /**
+     * @param start - the path to walk.
+     * @param level - the nested level to reach, 0 means recursively.
+     */
+    public FileWalker(Path start, int level) {
+        this(start, level, true);
+    }
+    /**
+     * @param start - the path to walk.
+     * @param level - the nested level to reach, 0 means recursively.
+     * @param followLinks - false to return the links as links without descending into them.
+     */
+    public FileWalker(Path start, int level, boolean followLinks) {
+        this.start = start;
+        this.maxDepth = level <= 0 ? Integer.MAX_VALUE : level;
+        this.followLinks = followLinks;
+    }
+    @Override
+    public boolean hasNext() {
+        if(next == null) next = advance();
+        return next != null;
+    }
+    @Override
+    public PathEntry next() {
+        if(!hasNext()) throw new NoSuchElementException();
+        PathEntry entry = next;
+        next = null;
+        return entry;
+    }
+    private PathEntry advance() {
+        if(!started) {
+            started = true;
+            return visit(start, 0);
+        }
+        while(!stack.isEmpty()) {
+            Frame top = stack.peek();
+            Path p;
+            try {
+                if(!top.iterator().hasNext()) {
+                    closeFrame(stack.pop());
+                    continue;
+                }
+                p = top.iterator().next();
+            } catch(DirectoryIteratorException e) {
+                e.getCause().printStackTrace();
+                closeFrame(stack.pop());
+                continue;
+            }
+            PathEntry entry = visit(p, top.depth());
+            if(entry != null) return entry;
+        }
+        return null;
+    }
+    /**
+     * read the path attributes and open it if its a directory to descend into.
+     * @return the entry of the path, null if it can't be read.
+     */
+    private PathEntry visit(Path p, int depth) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = followLinks || depth == 0 ? readAttributes(p) : Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch(IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if(attributes.isDirectory() && depth < maxDepth) {
+            Object fileKey = attributes.fileKey();
+            if(isLoop(fileKey)) {
+                console.printf("%s%n", "[Warning] Skipping file system loop => " + p);
+                return new PathEntry(p, attributes);
+            }
+            try {
+                DirectoryStream<Path> stream = Files.newDirectoryStream(p);
+                stack.push(new Frame(stream, stream.iterator(), fileKey, depth + 1));
+            } catch(IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return new PathEntry(p, attributes);
+    }
+    private static BasicFileAttributes readAttributes(Path p) throws IOException {
+        try {
+            return Files.readAttributes(p, BasicFileAttributes.class);
+        } catch(IOException e) {
+            // a broken link is still returned as a link.
+            return Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        }
+    }
+    /**
+     * @return true if a directory with the key is already open above it.
+     */
+    private boolean isLoop(Object fileKey) {
+        if(fileKey == null) return false;
+        for(Frame f: stack) {
+            if(fileKey.equals(f.fileKey())) return true;
+        }
+        return false;
+    }
+    private static void closeFrame(Frame frame) {
+        try {
+            frame.stream().close();
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * close the directories still open when the walk is stopped before its end.
+     */
+    @Override
+    public void close() {
+        while(!stack.isEmpty()) {
+            closeFrame(stack.pop());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Persistent cache of the CRC-32C of the file contents.
+ * <p> Each absolute path is stored with the size and modification time it had when it was hashed,
+ * a file is hashed again only when any of them changed, and the files deleted since they were hashed are dropped on save.
+ * <p> The cache is a binary file in the data directory of the user, see {@link #getDataDirectory()},
+ * and it can be queried by many workers at the same time.
+ */
+public final class HashCache {
+    private static final int MAGIC = 0x48434348; // "HCCH"
+    private static final int VERSION = 1;
+    private static final String FILE_NAME = "hashes.cache";
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+    private static HashCache instance;
+
+    private record Entry(long size, long modified, int hash) {}
+
+    private final Path cachePath;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean changed;
+
+    private HashCache(Path cachePath) {
+        this.cachePath = cachePath;
+    }
+    /**
+     * The directory where the program keeps its caches, "~/.filemanager" unless the "filemanager.home" property is set.
+     * @return the data directory, it may not exist yet.
+     */
+    public static Path getDataDirectory() {
+        String home = System.getProperty("filemanager.home");
+        if(home != null) return Paths.get(home);
+        return Paths.get(System.getProperty("user.home"), ".filemanager");
+    }
+    /**
+     * Get the cache of the program, loading it from disk on first access.
+     * <p> the cache is saved on exit if it changed.
+     * @return the shared hash cache.
+     */
+    public static synchronized HashCache getInstance() {
+        if(instance == null) {
+            instance = load(getDataDirectory().resolve(FILE_NAME));
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::save, "hash-cache-save"));
+        }
+        return instance;
+    }
+    /**
+     * Load a cache file, an unreadable or outdated file gives an empty cache.
+     * @param cachePath - the cache file.
+     * @return the loaded cache.
+     */
+    public static HashCache load(Path cachePath) {
+        HashCache cache = new HashCache(cachePath);
+        if(!Files.isRegularFile(cachePath)) return cache;
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cachePath), 1 << 16))) {
+            if(input.readInt() != MAGIC || input.readInt() != VERSION) return cache;
+            int count = input.readInt();
+            for(int i=0; i<count; ++i) {
+                String path = input.readUTF();
+                cache.entries.put(path, new Entry(input.readLong(), input.readLong(), input.readInt()));
+            }
+        } catch(IOException e) {
+            // a broken cache is rebuilt on the next hashes.
+            cache.entries.clear();
+        }
+        return cache;
+    }
+    /**
+     * Get the CRC-32C of a file content, hashing it only if its not cached or it changed since it was cached.
+     * @param filePath - the file to hash.
+     * @return the CRC-32C of the file.
+     */
+    public int getHash(Path filePath) throws IOException {
+        return getHash(filePath, Files.readAttributes(filePath, BasicFileAttributes.class));
+    }
+    /**
+     * Get the CRC-32C of a file content with the attributes already read for it, like the ones of a walked entry.
+     * @param filePath - the file to hash.
+     * @param attributes - the attributes of the file.
+     * @return the CRC-32C of the file.
+     */
+    public int getHash(Path filePath, BasicFileAttributes attributes) throws IOException {
+        Path absolute = filePath.toAbsolutePath().normalize();
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        String key = absolute.toString();
+        Entry entry = entries.get(key);
+        if(entry != null && entry.size() == size && entry.modified() == modified) return entry.hash();
+        int hash = hash(absolute);
+        entries.put(key, new Entry(size, modified, hash));
+        changed = true;
+        return hash;
+    }
+    /**
+     * Hash a file content without the cache.
+     * @param filePath - the file to hash.
+     * @return the CRC-32C of the file.
+     */
+    public static int hash(Path filePath) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = BUFFERS.get();
+        try(FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            buffer.clear();
+            while(channel.read(buffer) != -1) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return (int) crc.getValue();
+    }
+    /**
+     * Write the cache to disk if it changed.
+     * <p> the entries of the files that no longer exist are dropped, so the cache doesn't keep growing with deleted files.
+     * <p> the file is replaced at once, so other processes never read a partial cache.
+     */
+    public synchronized void save() {
+        if(!changed) return;
+        entries.keySet().removeIf(path -> !Files.exists(Paths.get(path)));
+        try {
+            Files.createDirectories(cachePath.getParent());
+            Path temporary = Files.createTempFile(cachePath.getParent(), FILE_NAME, ".tmp");
+            try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                Map<String, Entry> snapshot = Map.copyOf(entries);
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(snapshot.size());
+                for(Map.Entry<String, Entry> e: snapshot.entrySet()) {
+                    output.writeUTF(e.getKey());
+                    output.writeLong(e.getValue().size());
+                    output.writeLong(e.getValue().modified());
+                    output.writeInt(e.getValue().hash());
+                }
+            }
+            Files.move(temporary, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            changed = false;
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Prints the content hash of the files of a tree, computed in parallel through the {@link HashCache}.
+ */
+public class HashUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+    /**
+     * number of files each worker can have waiting to be printed.
+     */
+    private static final int IN_FLIGHT_PER_JOB = 64;
+
+    private FileUtils fileUtils;
+    private HashCache cache;
+    private int jobs;
+
+    public HashUtils(FileUtils fileUtils, HashCache cache, int jobs) {
+        this.fileUtils = fileUtils;
+        this.cache = cache;
+        this.jobs = jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+    }
+    /**
+     * Print the CRC-32C of each file in walk order with the format "hash  path".
+     * @param sourcePath - the file or directory to hash.
+     * @param level - the nested level to reach, 0 means recursively.
+     */
+    public void printHashes(Path sourcePath, int level) {
+        WalkPipeline<String> pipeline = new WalkPipeline<>("hash", jobs, IN_FLIGHT_PER_JOB, true);
+        try {
+            pipeline.run(
+                    () -> fileUtils.getLazilyDirEntries(sourcePath.toString(), level).filter(PathEntry::isRegularFile),
+                    this::hash,
+                    (entry, e) -> "[Error] Couldn't hash => " + entry.path() + " " + e,
+                    line -> {
+                        console.printf(CONSOLE_FORMAT, line);
+                        return true;
+                    }
+            );
+        } catch(IOException e) {
+            e.printStackTrace();
+        } finally {
+            cache.save();
+        }
+    }
+    /**
+     * @return the hash line of the file, null if it can't be read.
+     */
+    private String hash(PathEntry entry) {
+        try {
+            return String.format("%08x  %s", cache.getHash(entry.path(), entry.attributes()), entry.path());
+        } catch(IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Builds, updates and queries the {@link PathIndex} of a tree.
+ * <p> The update only lists again the directories whose modification time changed,
+ * a file whose content changed keeps its indexed size and time until its directory changes or the index is built again.
+ */
+public class IndexUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+
+    private int changedDirectories;
+    private int checkedDirectories;
+
+    /**
+     * Walk a tree and write its index.
+     * @param rootPath - the directory to index.
+     */
+    public void buildIndex(Path rootPath) {
+        Path root = rootPath.toAbsolutePath().normalize();
+        if(!Files.isDirectory(root)) {
+            console.printf(CONSOLE_FORMAT, "[Error] Only directories can be indexed => " + root);
+            return;
+        }
+        try {
+            List<PathIndex.Entry> entries = new ArrayList<>();
+            addTree(root, root, entries);
+            long rootModified = Files.getLastModifiedTime(root).toMillis();
+            Path indexFile = PathIndex.write(root, rootModified, entries);
+            console.printf("[Info] Indexed %d paths of %s into %s%n", entries.size(), root, indexFile);
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Update the index of a tree, only the directories whose modification time changed are listed again.
+     * @param rootPath - the indexed directory.
+     */
+    public void updateIndex(Path rootPath) {
+        Path root = rootPath.toAbsolutePath().normalize();
+        Path indexFile = PathIndex.getIndexFile(root);
+        if(!Files.isRegularFile(indexFile)) {
+            buildIndex(root);
+            return;
+        }
+        if(!Files.isDirectory(root)) {
+            console.printf(CONSOLE_FORMAT, "[Error] The indexed directory doesn't exists => " + root);
+            return;
+        }
+        try {
+            PathIndex index = PathIndex.load(indexFile);
+            // the indexed children of each directory.
+            Map<String, List<PathIndex.Entry>> children = new HashMap<>();
+            index.forEach(e -> children.computeIfAbsent(getParent(e.path()), k -> new ArrayList<>()).add(e));
+            List<PathIndex.Entry> entries = new ArrayList<>(index.size());
+            changedDirectories = 0;
+            checkedDirectories = 0;
+            long rootModified = Files.getLastModifiedTime(root).toMillis();
+            updateDirectory(root, root, "", index.getRootModified() == rootModified, children, entries);
+            PathIndex.write(root, rootModified, entries);
+            console.printf(
+                    "[Info] Updated %d paths of %s, %d of %d directories changed%n",
+                    entries.size(), root, changedDirectories, checkedDirectories
+            );
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Update every indexed tree.
+     */
+    public void updateIndexes() {
+        try {
+            for(Path indexFile: PathIndex.listIndexFiles()) {
+                updateIndex(PathIndex.load(indexFile).getRoot());
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * keep the indexed children of an unchanged directory or list them again, then check its child directories.
+     * @param directoryPath - the directory to update.
+     * @param directory - the directory path relative to the root.
+     * @param unchanged - true if the directory has the indexed modification time.
+     */
+    private void updateDirectory(Path root, Path directoryPath, String directory, boolean unchanged, Map<String, List<PathIndex.Entry>> children, List<PathIndex.Entry> entries) throws IOException {
+        ++checkedDirectories;
+        List<PathIndex.Entry> indexed = children.getOrDefault(directory, List.of());
+        if(unchanged) {
+            for(PathIndex.Entry e: indexed) {
+                entries.add(e);
+                if(e.directory()) checkDirectory(root, e, children, entries);
+            }
+            return;
+        }
+        ++changedDirectories;
+        Map<String, PathIndex.Entry> previous = new HashMap<>();
+        for(PathIndex.Entry e: indexed) previous.put(e.path(), e);
+        try(FileWalker walker = new FileWalker(directoryPath, 1)) {
+            // the first entry is the directory itself.
+            if(walker.hasNext()) walker.next();
+            while(walker.hasNext()) {
+                PathEntry child = walker.next();
+                PathIndex.Entry e = toEntry(root, child);
+                PathIndex.Entry old = previous.get(e.path());
+                if(e.directory() && (old == null || !old.directory())) {
+                    // a new directory is indexed with all its content.
+                    addTree(root, child.path(), entries);
+                    continue;
+                }
+                entries.add(e);
+                if(e.directory()) updateDirectory(root, child.path(), e.path(), old.modified() == e.modified(), children, entries);
+            }
+        }
+    }
+    private void checkDirectory(Path root, PathIndex.Entry indexed, Map<String, List<PathIndex.Entry>> children, List<PathIndex.Entry> entries) throws IOException {
+        Path directoryPath;
+        BasicFileAttributes attributes;
+        try {
+            directoryPath = root.resolve(indexed.path());
+            attributes = Files.readAttributes(directoryPath, BasicFileAttributes.class);
+        } catch(IOException | InvalidPathException e) {
+            // removed after its parent was checked, the parent changes with it.
+            // or a name that can't be encoded with the platform charset, then its content stays out of the index.
+            return;
+        }
+        updateDirectory(root, directoryPath, indexed.path(), attributes.lastModifiedTime().toMillis() == indexed.modified(), children, entries);
+    }
+    /**
+     * add the entries of a tree, the root of the index is left out.
+     */
+    private static void addTree(Path root, Path start, List<PathIndex.Entry> entries) {
+        try(FileWalker walker = new FileWalker(start, 0)) {
+            while(walker.hasNext()) {
+                PathEntry entry = walker.next();
+                if(entry.path().equals(root)) continue;
+                entries.add(toEntry(root, entry));
+            }
+        }
+    }
+    private static PathIndex.Entry toEntry(Path root, PathEntry entry) {
+        BasicFileAttributes attributes = entry.attributes();
+        return new PathIndex.Entry(
+                root.relativize(entry.path()).toString(),
+                attributes.size(),
+                attributes.lastModifiedTime().toMillis(),
+                attributes.isDirectory()
+        );
+    }
+    private static String getParent(String path) {
+        int separator = path.lastIndexOf(FileSystems.getDefault().getSeparator());
+        return separator == -1 ? "" : path.substring(0, separator);
+    }
+    /**
+     * Print the indexed paths that match a pattern.
+     * <p> a pattern with any of *?[{ is a glob, it's matched against the file name, or the relative path if it has a separator.
+     * <p> otherwise its an ignore-case search of the pattern inside the relative path.
+     * @param pattern - the glob or the text to search.
+     * @param rootPath - the indexed directory, null to search every index.
+     */
+    public void find(String pattern, Path rootPath) {
+        try {
+            List<Path> indexFiles = rootPath == null ? PathIndex.listIndexFiles() : List.of(PathIndex.getIndexFile(rootPath));
+            indexFiles = indexFiles.stream().filter(Files::isRegularFile).toList();
+            if(indexFiles.isEmpty()) {
+                console.printf(CONSOLE_FORMAT, "[Warning] No index found, use --index build path first");
+                return;
+            }
+            Predicate<String> matcher = getMatcher(pattern);
+            long start = System.nanoTime();
+            long matches = 0;
+            long indexed = 0;
+            for(Path indexFile: indexFiles) {
+                PathIndex index = PathIndex.load(indexFile);
+                String root = index.getRoot().toString() + FileSystems.getDefault().getSeparator();
+                long[] found = new long[1];
+                index.forEach(e -> {
+                    if(matcher.test(e.path())) {
+                        console.printf(CONSOLE_FORMAT, root + e.path());
+                        ++found[0];
+                    }
+                });
+                matches += found[0];
+                indexed += index.size();
+            }
+            console.verbose("[Verbose] %d of %d indexed paths matched in %.1f ms", matches, indexed, (System.nanoTime() - start) / 1e6);
+            if(matches == 0) console.printf(CONSOLE_FORMAT, "[Info] No indexed path matches " + pattern);
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    private static Predicate<String> getMatcher(String pattern) {
+        if(pattern.chars().noneMatch(c -> "*?[{".indexOf(c) != -1)) {
+            String text = pattern.toLowerCase(Locale.ROOT);
+            return path -> path.toLowerCase(Locale.ROOT).contains(text);
+        }
+        PathMatcher glob = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        boolean wholePath = pattern.contains("/") || pattern.contains(FileSystems.getDefault().getSeparator());
+        return path -> {
+            try {
+                Path p = Paths.get(path);
+                Path name = wholePath ? p : p.getFileName();
+                return name != null && glob.matches(name);
+            } catch(InvalidPathException e) {
+                // a name that can't be encoded with the platform charset.
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,269 @@
+package org.example.utils;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Sidecar index with the byte offset of every {@link #STEP} lines of a file.
+ * <p> The index is stored on the data directory, named by the hash of the file absolute path,
+ * and rebuilt when the file size or modification time changes.
+ * <p> Lines end on \n, \r or \r\n like {@link BufferedReader#readLine()}.
+ */
+public final class LineIndex {
+    private static final int MAGIC = 0x4c494458; // "LIDX"
+    private static final int VERSION = 2;
+    /**
+     * number of lines between two stored offsets.
+     */
+    private static final int STEP = 1024;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path filePath;
+    private final long lines;
+    /**
+     * offset of the line number (i * STEP + 1).
+     */
+    private final long[] offsets;
+
+    private LineIndex(Path filePath, long lines, long[] offsets) {
+        this.filePath = filePath;
+        this.lines = lines;
+        this.offsets = offsets;
+    }
+    /**
+     * @return the folder of the line indexes, it may not exist yet.
+     */
+    public static Path getIndexDirectory() {
+        return HashCache.getDataDirectory().resolve("lines");
+    }
+    /**
+     * The path of the index for a file, named by the hash of its absolute path.
+     * @param filePath - the indexed file.
+     * @return the index path on the data directory, it may not exist yet.
+     */
+    public static Path getIndexPath(Path filePath) {
+        CRC32C crc = new CRC32C();
+        crc.update(getKey(filePath).getBytes(StandardCharsets.UTF_8));
+        return getIndexDirectory().resolve(String.format("%08x", crc.getValue()) + ".lidx");
+    }
+    /**
+     * @return the absolute path of the file, stored on the index to tell apart files with the same hash.
+     */
+    private static String getKey(Path filePath) {
+        return filePath.toAbsolutePath().normalize().toString();
+    }
+    /**
+     * Load the index of a file, building it on first access or when the file changed.
+     * <p> if the index can't be written the index is only kept in memory.
+     * @param filePath - the file to index.
+     * @return the index of the file lines.
+     */
+    public static LineIndex load(Path filePath) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        LineIndex index = read(filePath, size, modified);
+        if(index != null) return index;
+        index = build(filePath);
+        try {
+            index.write(size, modified);
+        } catch(IOException e) {
+            // the index is only a cache, a read-only data directory still gets the in-memory index.
+        }
+        return index;
+    }
+    private static LineIndex read(Path filePath, long size, long modified) {
+        Path indexPath = getIndexPath(filePath);
+        if(!Files.isRegularFile(indexPath)) return null;
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if(input.readInt() != MAGIC || input.readInt() != VERSION) return null;
+            if(!input.readUTF().equals(getKey(filePath))) return null;
+            if(input.readLong() != size || input.readLong() != modified) return null;
+            if(input.readInt() != STEP) return null;
+            long lines = input.readLong();
+            long[] offsets = new long[input.readInt()];
+            for(int i=0; i<offsets.length; ++i) {
+                offsets[i] = input.readLong();
+            }
+            return new LineIndex(filePath, lines, offsets);
+        } catch(IOException e) {
+            return null;
+        }
+    }
+    /**
+     * write the index to a temporary file and move it into place, so a concurrent reader never sees a partial index.
+     */
+    private void write(long size, long modified) throws IOException {
+        Path indexPath = getIndexPath(filePath);
+        Files.createDirectories(indexPath.getParent());
+        Path temporary = Files.createTempFile(indexPath.getParent(), indexPath.getFileName().toString(), ".tmp");
+        try {
+            writeTo(temporary, size, modified);
+            Files.move(temporary, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+    private void writeTo(Path indexPath, long size, long modified) throws IOException {
+        try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(getKey(filePath));
+            output.writeLong(size);
+            output.writeLong(modified);
+            output.writeInt(STEP);
+            output.writeLong(lines);
+            output.writeInt(offsets.length);
+            for(long o: offsets) {
+                output.writeLong(o);
+            }
+        }
+    }
+    /**
+     * Scan the file once and record the offset of every {@link #STEP} lines.
+     * @param filePath - the file to index.
+     * @return the index of the file lines.
+     */
+    public static LineIndex build(Path filePath) throws IOException {
+        long[] offsets = new long[16];
+        int count = 0;
+        long lines = 0;
+        long position = 0;
+        // the offset where the current line starts, -1 if no line is open.
+        long lineStart = -1;
+        boolean afterCarriageReturn = false;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try(FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            while(channel.read(buffer) != -1) {
+                buffer.flip();
+                while(buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if(b == '\n' && afterCarriageReturn) {
+                        // second half of a \r\n terminator.
+                        afterCarriageReturn = false;
+                        ++position;
+                        continue;
+                    }
+                    afterCarriageReturn = b == '\r';
+                    if(lineStart == -1) {
+                        lineStart = position;
+                        if(lines % STEP == 0) {
+                            if(count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+                            offsets[count++] = lineStart;
+                        }
+                        ++lines;
+                    }
+                    if(b == '\n' || b == '\r') lineStart = -1;
+                    ++position;
+                }
+                buffer.clear();
+            }
+        }
+        return new LineIndex(filePath, lines, Arrays.copyOf(offsets, count));
+    }
+    /**
+     * @return the number of lines of the file.
+     */
+    public long getLines() {
+        return lines;
+    }
+    /**
+     * Read the lines in a range without reading the file content before it.
+     * @param start - the first line to read, starting at 1.
+     * @param stop - the last line to read, included.
+     * @param consumer - receives the line number and the line text.
+     */
+    public void readLines(long start, long stop, BiConsumer<Long, String> consumer) throws IOException {
+        if(start < 1) start = 1;
+        if(stop > lines) stop = lines;
+        if(start > stop) return;
+        int checkpoint = (int) ((start-1) / STEP);
+        long lineNumber = (long) checkpoint * STEP + 1;
+        try(FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            channel.position(offsets[checkpoint]);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), BUFFER_SIZE);
+            String l;
+            while(lineNumber <= stop && (l = reader.readLine()) != null) {
+                if(lineNumber >= start) consumer.accept(lineNumber, l);
+                ++lineNumber;
+            }
+        }
+    }
+    /**
+     * Find the offset where the last lines of a file start scanning it backwards from the end.
+     * <p> this doesn't need an index, only the blocks at the end of the file are read.
+     * @param filePath - the file to scan.
+     * @param count - the number of lines to reach.
+     * @return the offset of the first of the last lines.
+     */
+    public static long findTailOffset(Path filePath, long count) throws IOException {
+        try(FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(count <= 0) return size;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long end = size;
+            // the terminator of the last line doesn't start a new line.
+            boolean skipTerminator = true;
+            byte next = 0;
+            long found = 0;
+            while(end > 0) {
+                long start = Math.max(0, end - BUFFER_SIZE);
+                buffer.clear().limit((int) (end - start));
+                while(buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) != -1);
+                for(int i=(int) (end - start) - 1; i>=0; --i) {
+                    byte b = buffer.get(i);
+                    long offset = start + i;
+                    boolean terminator = b == '\n' || (b == '\r' && next != '\n');
+                    next = b;
+                    if(b == '\r' && !terminator) continue;
+                    if(!terminator) {
+                        skipTerminator = false;
+                        continue;
+                    }
+                    if(skipTerminator) {
+                        skipTerminator = false;
+                        continue;
+                    }
+                    if(++found == count) return offset + 1;
+                }
+                end = start;
+            }
+            return 0;
+        }
+    }
+    /**
+     * Read the lines of a file starting at an offset.
+     * @param filePath - the file to read.
+     * @param offset - the offset of the first line.
+     * @param consumer - receives each line text.
+     */
+    public static void readFrom(Path filePath, long offset, Consumer<String> consumer) throws IOException {
+        try(FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            channel.position(offset);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), BUFFER_SIZE);
+            String l;
+            while((l = reader.readLine()) != null) {
+                consumer.accept(l);
+            }
+        }
+    }
+}
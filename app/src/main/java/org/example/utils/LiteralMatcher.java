@@ -0,0 +1,94 @@
+package org.example.utils;
+
+import java.util.Arrays;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Precompiled substring matcher using Boyer-Moore-Horspool.
+ * <p> The case of ASCII letters is ignored like in {@link WordMatcher}, other characters must be equal.
+ * <p> The shift table has 256 buckets by the low byte of each character, a bucket keeps the smallest shift of its characters,
+ * so the same table works for the chars of a line and for the UTF-8 bytes of a mapped file.
+ */
+public final class LiteralMatcher implements SearchEngine {
+    private static final int BUCKETS = 256;
+
+    /**
+     * the text folded to lower case ASCII, null if no line can contain it.
+     */
+    private final char[] text;
+    /**
+     * the folded UTF-8 bytes of the text, for the mapped files.
+     */
+    private final byte[] bytes;
+    private final int[] charShifts;
+    private final int[] byteShifts;
+
+    /**
+     * @param text - the text to search, prepared once for every line.
+     */
+    public LiteralMatcher(String text) {
+        // a line never contains its terminators.
+        if(text == null || text.isEmpty() || text.indexOf('\n') != -1 || text.indexOf('\r') != -1) {
+            this.text = null;
+            this.bytes = null;
+            this.charShifts = null;
+            this.byteShifts = null;
+            return;
+        }
+        this.text = text.toCharArray();
+        for(int i=0; i<this.text.length; ++i) this.text[i] = WordMatcher.toLowerCase(this.text[i]);
+        this.bytes = new String(this.text).getBytes(StandardCharsets.UTF_8);
+        this.charShifts = new int[BUCKETS];
+        this.byteShifts = new int[BUCKETS];
+        Arrays.fill(charShifts, this.text.length);
+        Arrays.fill(byteShifts, bytes.length);
+        // the last character doesn't shift, a later character of the same bucket leaves the smaller shift.
+        for(int i=0; i<this.text.length-1; ++i) {
+            charShifts[this.text[i] & 0xFF] = this.text.length-1 - i;
+        }
+        for(int i=0; i<bytes.length-1; ++i) {
+            byteShifts[bytes[i] & 0xFF] = bytes.length-1 - i;
+        }
+    }
+    @Override
+    public boolean matches(CharSequence line) {
+        if(line == null || text == null) return false;
+        final int last = text.length-1;
+        for(int i=0, n=line.length(); i+last < n;) {
+            char c = WordMatcher.toLowerCase(line.charAt(i+last));
+            int k = last;
+            if(c == text[k]) {
+                while(k > 0 && WordMatcher.toLowerCase(line.charAt(i+k-1)) == text[k-1]) --k;
+                if(k == 0) return true;
+            }
+            i += charShifts[c & 0xFF];
+        }
+        return false;
+    }
+    /**
+     * Find the text on the bytes of a buffer.
+     * @param buffer - the bytes to search.
+     * @param from - the first position to search.
+     * @param end - the position after the last byte to search.
+     * @return the position of the first occurrence, -1 if none.
+     */
+    public int indexIn(ByteBuffer buffer, int from, int end) {
+        if(bytes == null) return -1;
+        final int last = bytes.length-1;
+        for(int i=from; i+last < end;) {
+            byte b = toLowerCase(buffer.get(i+last));
+            int k = last;
+            if(b == bytes[k]) {
+                while(k > 0 && toLowerCase(buffer.get(i+k-1)) == bytes[k-1]) --k;
+                if(k == 0) return i;
+            }
+            i += byteShifts[b & 0xFF];
+        }
+        return -1;
+    }
+    private static byte toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b | 0x20) : b;
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Precompiled whole word matcher for many words at once.
+ * <p> The words are compiled into the goto automaton of Aho-Corasick, a transition table over [a-z0-9],
+ * so each line is scanned once whatever the number of words.
+ * <p> A word must be a whole token like in {@link WordMatcher}, so the automaton starts again on each token
+ * and a token that leaves the automaton can't match, the failure links of Aho-Corasick are never needed.
+ */
+public final class MultiWordMatcher {
+    private static final int SYMBOLS = 36;
+    /**
+     * the state of a token that can't be equal to any word.
+     */
+    public static final int DEAD = -1;
+
+    private final List<String> words = new ArrayList<>();
+    private final List<WordMatcher> matchers = new ArrayList<>();
+    private int[] transitions = new int[SYMBOLS * 16];
+    private int[] accepted = new int[16];
+    private int states = 1;
+
+    /**
+     * @param words - the words to search, the ones that no token can be equal to are left out.
+     */
+    public MultiWordMatcher(List<String> words) {
+        Arrays.fill(transitions, DEAD);
+        Arrays.fill(accepted, -1);
+        for(String w: words) {
+            WordMatcher matcher = new WordMatcher(w);
+            char[] folded = matcher.getWord();
+            if(folded == null) continue;
+            int state = 0;
+            for(char c: folded) {
+                int s = state * SYMBOLS + symbol(c);
+                if(transitions[s] == DEAD) transitions[s] = addState();
+                state = transitions[s];
+            }
+            // the same word with another case is already there.
+            if(accepted[state] != -1) continue;
+            accepted[state] = this.words.size();
+            this.words.add(w);
+            matchers.add(matcher);
+        }
+    }
+    /**
+     * Create the matcher of a command line value.
+     * <p> the words are separated by comma - example: error,warning
+     * <p> with @ the words are read from a file, one per line and the lines starting with # are ignored - example: @words.txt
+     * @param value - the words or the file of words.
+     * @return the matcher of the words.
+     * @throws IOException if the file of words can't be read.
+     */
+    public static MultiWordMatcher of(String value) throws IOException {
+        List<String> words = new ArrayList<>();
+        if(value.startsWith("@")) {
+            for(String l: Files.readAllLines(Path.of(value.substring(1)))) {
+                String w = l.strip();
+                if(!w.isEmpty() && !w.startsWith("#")) words.add(w);
+            }
+        } else {
+            for(String w: value.split(",")) {
+                if(!w.isBlank()) words.add(w.strip());
+            }
+        }
+        return new MultiWordMatcher(words);
+    }
+    private int addState() {
+        if(states == accepted.length) {
+            int capacity = states * 2;
+            transitions = Arrays.copyOf(transitions, capacity * SYMBOLS);
+            Arrays.fill(transitions, states * SYMBOLS, transitions.length, DEAD);
+            accepted = Arrays.copyOf(accepted, capacity);
+            Arrays.fill(accepted, states, capacity, -1);
+        }
+        return states++;
+    }
+    /**
+     * @return the position of the character in [0-9a-z] ignoring case, -1 if its not alphanumeric.
+     */
+    private static int symbol(int c) {
+        if(c >= '0' && c <= '9') return c - '0';
+        if(c >= 'a' && c <= 'z') return c - 'a' + 10;
+        if(c >= 'A' && c <= 'Z') return c - 'A' + 10;
+        return -1;
+    }
+    /**
+     * @return the number of words that can match.
+     */
+    public int size() {
+        return words.size();
+    }
+    public String getWord(int index) {
+        return words.get(index);
+    }
+    /**
+     * @param index - the position of the word.
+     * @return the single word matcher of the word.
+     */
+    public WordMatcher getMatcher(int index) {
+        return matchers.get(index);
+    }
+    /**
+     * Move the automaton with the next character of a token, the first token character starts from the state 0.
+     * @param state - the current state, not {@link #DEAD}.
+     * @param c - an alphanumeric character.
+     * @return the next state, {@link #DEAD} if the token can't match.
+     */
+    public int next(int state, int c) {
+        return transitions[state * SYMBOLS + symbol(c)];
+    }
+    /**
+     * @param state - the state at the end of a token.
+     * @return the position of the word equal to the token, -1 if none.
+     */
+    public int accepted(int state) {
+        return state == DEAD ? -1 : accepted[state];
+    }
+    /**
+     * Get the words that are whole tokens of the line.
+     * @param line - is the line that possibly contains the words.
+     * @return the matched words in the order they first appear, empty if none.
+     */
+    public List<String> matches(CharSequence line) {
+        if(line == null || words.isEmpty()) return List.of();
+        List<String> found = List.of();
+        int state = 0;
+        for(int i=0, n=line.length(); i<=n; ++i) {
+            char c = i < n ? line.charAt(i) : ' ';
+            if(WordMatcher.isAlphaNumeric(c)) {
+                if(state != DEAD) state = next(state, c);
+                continue;
+            }
+            int w = accepted(state);
+            if(w != -1 && !found.contains(words.get(w))) {
+                if(found.isEmpty()) found = new ArrayList<>(2);
+                found.add(words.get(w));
+            }
+            state = 0;
+        }
+        return found;
+    }
+}
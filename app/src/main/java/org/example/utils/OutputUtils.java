@@ -0,0 +1,270 @@
+package org.example.utils;
+
+import java.io.BufferedWriter;
+import java.io.Console;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Formatter;
+
+/**
+ * The output sink shared by every operation.
+ * <p> The output is kept on a large buffer and flushed in batches, when the buffer is full,
+ * when {@link #FLUSH_INTERVAL_MILLIS} passed since the last flush or when {@link #flush()} is called.
+ * <p> It writes to the console when one is attached, otherwise to the standard output, so it also works when piped.
+ * <p> A thread can send the output of a task to another sink with {@link #redirect(OutputUtils, Runnable)},
+ * the threads it starts inherit the redirection, this is how the daemon answers each client.
+ * <p> Like {@link java.io.PrintStream} the first write error, like a closed pipe, stops the sink,
+ * the later output is dropped and {@link #checkError()} tells the long loops to stop.
+ */
+public final class OutputUtils extends Writer {
+    private static final int BUFFER_SIZE = 1 << 18;
+    private static final long FLUSH_INTERVAL_MILLIS = 200;
+    private static final InheritableThreadLocal<OutputUtils> REDIRECT = new InheritableThreadLocal<>();
+    private static final OutputUtils INSTANCE = new OutputUtils(standardOutput(), true);
+
+    private final Writer target;
+    private final Writer writer;
+    private final Formatter formatter;
+    private volatile boolean quiet;
+    private volatile boolean verbose;
+    private volatile boolean error;
+    private boolean pending;
+    private long lastFlush = System.currentTimeMillis();
+
+    /**
+     * @param target - where the buffered output is written.
+     * @param background - true to flush from a background thread and on exit, false to flush only while writing.
+     */
+    private OutputUtils(Writer target, boolean background) {
+        this.target = target;
+        writer = new BufferedWriter(target, BUFFER_SIZE);
+        formatter = new Formatter(this);
+        if(background) {
+            Thread flusher = new Thread(this::flushPeriodically, "output-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "output-shutdown"));
+        }
+    }
+    private static Writer standardOutput() {
+        Console console = System.console();
+        return console != null ? console.writer() : new OutputStreamWriter(new FileOutputStream(FileDescriptor.out));
+    }
+    /**
+     * @return the output sink of the program.
+     */
+    public static OutputUtils getInstance() {
+        return INSTANCE;
+    }
+    /**
+     * Create a sink that writes to another target, to use with {@link #redirect(OutputUtils, Runnable)}.
+     * <p> the sink has its own quiet and verbose modes, and its only flushed while writing or when {@link #flush()} is called.
+     * @param target - where the buffered output is written.
+     * @return the new sink.
+     */
+    public static OutputUtils of(Writer target) {
+        return new OutputUtils(target, false);
+    }
+    /**
+     * Run a task sending everything it writes to the program output into another sink.
+     * @param output - the sink that receives the output of the task.
+     * @param task - the task to run on this thread.
+     */
+    public static void redirect(OutputUtils output, Runnable task) {
+        OutputUtils previous = REDIRECT.get();
+        REDIRECT.set(output);
+        try {
+            task.run();
+        } finally {
+            REDIRECT.set(previous);
+            output.flush();
+        }
+    }
+    /**
+     * @return the sink of the current thread, this one if there is no redirection.
+     */
+    private OutputUtils target() {
+        OutputUtils redirected = REDIRECT.get();
+        return redirected != null ? redirected : this;
+    }
+    /**
+     * In quiet mode the per-file {@link #info(String, Object...)} messages are skipped before they are formatted.
+     * @param quiet - true to skip the info messages.
+     */
+    public void setQuiet(boolean quiet) {
+        OutputUtils t = target();
+        if(t != this) {
+            t.setQuiet(quiet);
+            return;
+        }
+        this.quiet = quiet;
+    }
+    public boolean isQuiet() {
+        OutputUtils t = target();
+        return t != this ? t.isQuiet() : quiet;
+    }
+    /**
+     * In verbose mode the {@link #verbose(String, Object...)} messages are written, like the throughput of each copied file.
+     * @param verbose - true to write the verbose messages.
+     */
+    public void setVerbose(boolean verbose) {
+        OutputUtils t = target();
+        if(t != this) {
+            t.setVerbose(verbose);
+            return;
+        }
+        this.verbose = verbose;
+    }
+    public boolean isVerbose() {
+        OutputUtils t = target();
+        return t != this ? t.isVerbose() : verbose;
+    }
+    /**
+     * @return true if writing failed, after that nothing else is written.
+     */
+    public boolean checkError() {
+        OutputUtils t = target();
+        return t != this ? t.checkError() : error;
+    }
+    /**
+     * Write a formatted string into the buffer.
+     * @param format - the format string like {@link String#format(String, Object...)}.
+     * @param args - the arguments of the format.
+     * @return this output.
+     */
+    public OutputUtils printf(String format, Object... args) {
+        OutputUtils t = target();
+        if(t != this) {
+            t.printf(format, args);
+            return this;
+        }
+        synchronized(lock) {
+            formatter.format(format, args);
+        }
+        return this;
+    }
+    /**
+     * Write a formatted per-file info message followed by a new line, unless the output is quiet.
+     * @param format - the format string like {@link String#format(String, Object...)}.
+     * @param args - the arguments of the format.
+     */
+    public void info(String format, Object... args) {
+        OutputUtils t = target();
+        if(t != this) {
+            t.info(format, args);
+            return;
+        }
+        if(quiet) return;
+        synchronized(lock) {
+            formatter.format(format, args);
+            formatter.format("%n");
+        }
+    }
+    /**
+     * Write a formatted verbose message followed by a new line, only in verbose mode.
+     * @param format - the format string like {@link String#format(String, Object...)}.
+     * @param args - the arguments of the format.
+     */
+    public void verbose(String format, Object... args) {
+        OutputUtils t = target();
+        if(t != this) {
+            t.verbose(format, args);
+            return;
+        }
+        if(!verbose) return;
+        synchronized(lock) {
+            formatter.format(format, args);
+            formatter.format("%n");
+        }
+    }
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        OutputUtils t = target();
+        if(t != this) {
+            t.write(buffer, offset, length);
+            return;
+        }
+        synchronized(lock) {
+            if(error) return;
+            try {
+                writer.write(buffer, offset, length);
+            } catch(IOException e) {
+                error = true;
+                return;
+            }
+            written();
+        }
+    }
+    @Override
+    public void write(String text, int offset, int length) {
+        OutputUtils t = target();
+        if(t != this) {
+            t.write(text, offset, length);
+            return;
+        }
+        synchronized(lock) {
+            if(error) return;
+            try {
+                writer.write(text, offset, length);
+            } catch(IOException e) {
+                error = true;
+                return;
+            }
+            written();
+        }
+    }
+    private void written() {
+        pending = true;
+        if(System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MILLIS) flushBuffer();
+    }
+    @Override
+    public void flush() {
+        OutputUtils t = target();
+        if(t != this) {
+            t.flush();
+            return;
+        }
+        flushBuffer();
+    }
+    private void flushBuffer() {
+        synchronized(lock) {
+            pending = false;
+            if(error) return;
+            try {
+                writer.flush();
+                // the console writer keeps its errors instead of throwing them.
+                if(target instanceof PrintWriter p && p.checkError()) error = true;
+            } catch(IOException e) {
+                // the buffer keeps the failed output, writing it again would fail again.
+                error = true;
+            }
+            lastFlush = System.currentTimeMillis();
+        }
+    }
+    /**
+     * The standard output is shared by the whole program, closing the sink only flushes it.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+    /**
+     * flush the buffered output that has been waiting for too long, so slow operations still show progress.
+     */
+    private void flushPeriodically() {
+        while(true) {
+            try {
+                Thread.sleep(FLUSH_INTERVAL_MILLIS);
+            } catch(InterruptedException e) {
+                return;
+            }
+            synchronized(lock) {
+                if(pending && System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MILLIS) flushBuffer();
+            }
+        }
+    }
+}
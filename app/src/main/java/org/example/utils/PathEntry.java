@@ -0,0 +1,22 @@
+package org.example.utils;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * A walked path with the attributes the walker already read for it.
+ * <p> use the attributes instead of asking the file system again for the same path.
+ * @param path - the walked path.
+ * @param attributes - the attributes of the path, following the symbolic links when they can be followed.
+ */
+public record PathEntry(Path path, BasicFileAttributes attributes) {
+    public boolean isDirectory() {
+        return attributes.isDirectory();
+    }
+    public boolean isRegularFile() {
+        return attributes.isRegularFile();
+    }
+    public long size() {
+        return attributes.size();
+    }
+}
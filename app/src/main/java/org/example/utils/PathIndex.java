@@ -0,0 +1,223 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * On-disk index of the paths of a tree with their size and modification time.
+ * <p> The paths are stored relative to the root and sorted, each one is front-coded:
+ * only the length of the prefix shared with the previous path and the rest of the path are written.
+ * <p> The numbers are written as variable length integers, so the file stays small,
+ * and it's read at once when loaded, the entries are decoded while they are visited.
+ * <p> Each root has its own file in the "index" folder of the data directory, see {@link HashCache#getDataDirectory()}.
+ */
+public final class PathIndex {
+    private static final int MAGIC = 0x46494458; // "FIDX"
+    private static final int VERSION = 1;
+    private static final String EXTENSION = ".idx";
+    private static final byte DIRECTORY = 1;
+
+    /**
+     * An indexed path.
+     * @param path - the path relative to the root.
+     * @param size - the size in bytes.
+     * @param modified - the last modification time in milliseconds.
+     * @param directory - true if the path is a directory.
+     */
+    public record Entry(String path, long size, long modified, boolean directory) {}
+
+    private final Path root;
+    private final long rootModified;
+    private final int count;
+    private final ByteBuffer entries;
+
+    private PathIndex(Path root, long rootModified, int count, ByteBuffer entries) {
+        this.root = root;
+        this.rootModified = rootModified;
+        this.count = count;
+        this.entries = entries;
+    }
+    /**
+     * @return the folder of the index files, it may not exist yet.
+     */
+    public static Path getIndexDirectory() {
+        return HashCache.getDataDirectory().resolve("index");
+    }
+    /**
+     * The index file of a root, named by the hash of its absolute path.
+     * @param root - the indexed directory.
+     * @return the index file, it may not exist yet.
+     */
+    public static Path getIndexFile(Path root) {
+        return getIndexFile(root, EXTENSION);
+    }
+    /**
+     * @param root - the indexed directory.
+     * @param extension - the extension of the kind of index.
+     * @return the index file of the kind for the root.
+     */
+    static Path getIndexFile(Path root, String extension) {
+        CRC32C crc = new CRC32C();
+        crc.update(root.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        return getIndexDirectory().resolve(String.format("%08x", crc.getValue()) + extension);
+    }
+    /**
+     * @return the index files of every indexed root.
+     */
+    public static List<Path> listIndexFiles() throws IOException {
+        Path directory = getIndexDirectory();
+        if(!Files.isDirectory(directory)) return List.of();
+        try(Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).sorted().toList();
+        }
+    }
+    /**
+     * Read an index file.
+     * @param indexFile - the index file.
+     * @return the loaded index.
+     * @throws IOException if the file can't be read or its not an index.
+     */
+    public static PathIndex load(Path indexFile) throws IOException {
+        ByteBuffer buffer = readIndexFile(indexFile);
+        if(buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a path index => " + indexFile);
+        }
+        byte[] rootBytes = new byte[(int) readVarLong(buffer)];
+        buffer.get(rootBytes);
+        long rootModified = readVarLong(buffer);
+        int count = (int) readVarLong(buffer);
+        return new PathIndex(Paths.get(new String(rootBytes, StandardCharsets.UTF_8)), rootModified, count, buffer.slice());
+    }
+    /**
+     * Read a whole index file into the heap.
+     * <p> the file isn't memory-mapped: Windows can't replace a mapped file until the mapping is garbage collected,
+     * so an index loaded by an update or by the daemon couldn't be written again.
+     * @param indexFile - the index file.
+     * @return the file content ready to read.
+     */
+    static ByteBuffer readIndexFile(Path indexFile) throws IOException {
+        try(FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE) throw new IOException("The index is too big => " + indexFile);
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while(buffer.hasRemaining()) {
+                if(channel.read(buffer) == -1) throw new IOException("The index was truncated => " + indexFile);
+            }
+            return buffer.flip();
+        }
+    }
+    /**
+     * Write the index of a root, the file is replaced at once so a reader never sees a partial index.
+     * @param root - the absolute indexed directory.
+     * @param rootModified - the modification time of the root in milliseconds.
+     * @param entries - the entries of the tree, they are sorted by path before writing.
+     * @return the index file.
+     */
+    public static Path write(Path root, long rootModified, List<Entry> entries) throws IOException {
+        Path indexFile = getIndexFile(root);
+        Files.createDirectories(indexFile.getParent());
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(Entry::path));
+        Path temporary = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            byte[] rootBytes = root.toString().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(output, rootBytes.length);
+            output.write(rootBytes);
+            writeVarLong(output, rootModified);
+            writeVarLong(output, sorted.size());
+            byte[] previous = new byte[0];
+            for(Entry e: sorted) {
+                byte[] path = e.path().getBytes(StandardCharsets.UTF_8);
+                int shared = sharedPrefix(previous, path);
+                writeVarLong(output, shared);
+                writeVarLong(output, path.length - shared);
+                output.write(path, shared, path.length - shared);
+                output.writeByte(e.directory() ? DIRECTORY : 0);
+                writeVarLong(output, e.size());
+                writeVarLong(output, e.modified());
+                previous = path;
+            }
+        }
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return indexFile;
+    }
+    public Path getRoot() {
+        return root;
+    }
+    public long getRootModified() {
+        return rootModified;
+    }
+    public int size() {
+        return count;
+    }
+    /**
+     * Decode each entry in path order.
+     * @param action - the action for each entry.
+     */
+    public void forEach(Consumer<Entry> action) {
+        ByteBuffer buffer = entries.duplicate();
+        byte[] path = new byte[256];
+        int length = 0;
+        for(int i=0; i<count; ++i) {
+            int shared = (int) readVarLong(buffer);
+            int suffix = (int) readVarLong(buffer);
+            length = shared + suffix;
+            if(length > path.length) {
+                byte[] larger = new byte[Math.max(length, path.length * 2)];
+                System.arraycopy(path, 0, larger, 0, shared);
+                path = larger;
+            }
+            buffer.get(path, shared, suffix);
+            boolean directory = buffer.get() == DIRECTORY;
+            long size = readVarLong(buffer);
+            long modified = readVarLong(buffer);
+            action.accept(new Entry(new String(path, 0, length, StandardCharsets.UTF_8), size, modified, directory));
+        }
+    }
+    private static int sharedPrefix(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        int i = 0;
+        while(i < n && a[i] == b[i]) ++i;
+        return i;
+    }
+    /**
+     * write the 7 bits groups of a positive number, the high bit tells if another group follows.
+     */
+    static void writeVarLong(OutputStream output, long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.utils;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Regular expression matcher, the {@link Pattern} is compiled once per search and ignores the case of ASCII letters like the other engines.
+ * <p> Each thread keeps its own {@link Matcher} and resets it on every line, so matching a line doesn't allocate.
+ */
+public final class RegexMatcher implements SearchEngine {
+    private final Pattern pattern;
+    private final ThreadLocal<Matcher> matchers;
+
+    /**
+     * @param regex - the regular expression to find on the lines.
+     * @throws java.util.regex.PatternSyntaxException if the regular expression is not valid.
+     */
+    public RegexMatcher(String regex) {
+        this.pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        this.matchers = ThreadLocal.withInitial(() -> pattern.matcher(""));
+    }
+    @Override
+    public boolean matches(CharSequence line) {
+        if(line == null) return false;
+        return matchers.get().reset(line).find();
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.utils;
+
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Decides which lines of a search are results.
+ * <p> An engine is prepared once per search and shared by the workers, so matching a line must not change it
+ * and shouldn't allocate.
+ * <p> Every engine ignores the case of the ASCII letters only, "É" doesn't match "é" in any mode,
+ * so a mapped file can be searched on its bytes like its decoded lines.
+ */
+public interface SearchEngine {
+    /**
+     * the search modes of --mode.
+     */
+    String WORD = "word";
+    String LITERAL = "literal";
+    String REGEX = "regex";
+
+    /**
+     * Determine if the line is a result of the search.
+     * @param line - is the line that possibly contains the pattern.
+     * @return true if the line contains the pattern, false otherwise.
+     */
+    boolean matches(CharSequence line);
+
+    /**
+     * Prepare the engine of a search mode.
+     * <p> word matches whole tokens, literal any substring and regex a {@link java.util.regex.Pattern} found anywhere on the line.
+     * @param mode - word, literal or regex.
+     * @param pattern - the word, text or regular expression to search.
+     * @return the engine of the mode.
+     * @throws IllegalArgumentException if the mode is unknown.
+     * @throws PatternSyntaxException if the regular expression is not valid.
+     */
+    static SearchEngine of(String mode, String pattern) {
+        return switch(mode) {
+            case WORD -> new WordMatcher(pattern);
+            case LITERAL -> new LiteralMatcher(pattern);
+            case REGEX -> new RegexMatcher(pattern);
+            default -> throw new IllegalArgumentException("Unknown search mode => " + mode);
+        };
+    }
+}
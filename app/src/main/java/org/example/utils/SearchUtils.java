@@ -0,0 +1,561 @@
+package org.example.utils;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Search pipeline for the word search commands.
+ * <p> A walker feeds the files to a pool of workers and a single output stage prints the results.
+ * <p> When a {@link TextIndex} covers the searched path, the files that didn't change since they were indexed
+ * are answered from the index, only the lines that contain the word are read.
+ */
+public class SearchUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+    /**
+     * number of files each worker can have waiting to be printed.
+     */
+    private static final int IN_FLIGHT_PER_JOB = 16;
+    /**
+     * biggest region of a file mapped at once.
+     */
+    private static final int MAPPED_CHUNK = 1 << 30;
+    /**
+     * the line of a result: file, line number, matched words and text.
+     */
+    private static final String WORDS_FORMAT = "%s:%d\t%s\t%s";
+
+    private FileUtils fileUtils;
+    private int jobs;
+    private boolean ordered;
+    private boolean mapped;
+    private TextIndex index;
+    private Map<Integer, int[]> indexedLines;
+    private AtomicLong indexedFiles = new AtomicLong();
+    private AtomicLong searchedFiles = new AtomicLong();
+
+    /**
+     * @param jobs - the number of workers searching files at the same time.
+     * @param ordered - true to print the files in the walk order, false to print them as they are found.
+     * @param mapped - true to scan the memory-mapped bytes of the files instead of decoding every line.
+     */
+    public SearchUtils(FileUtils fileUtils, int jobs, boolean ordered, boolean mapped) {
+        this.fileUtils = fileUtils;
+        this.jobs = jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+        this.ordered = ordered;
+        this.mapped = mapped;
+    }
+    public SearchUtils(FileUtils fileUtils, int jobs, boolean ordered) {
+        this(fileUtils, jobs, ordered, false);
+    }
+    public SearchUtils(FileUtils fileUtils) {
+        this(fileUtils, 1, true, false);
+    }
+    /**
+     * search a file for a prepared word with the mode given on creation.
+     * @param filePath - the file to search for the word.
+     * @param matcher - the word to search in a file.
+     * @return the matching lines with the format "file:line\t\ttext".
+     */
+    public List<String> search(Path filePath, WordMatcher matcher) {
+        return mapped ? searchWordInMappedFile(filePath, matcher) : searchWordInFile(filePath, matcher);
+    }
+    /**
+     * search a file for a prepared word, from the text index that covers it if the file didn't change since it was indexed.
+     * @param filePath - the file to search for the word.
+     * @param matcher - the word to search in a file.
+     * @return the matching lines with the format "file:line\t\ttext".
+     */
+    public List<String> searchIndexed(Path filePath, WordMatcher matcher) {
+        useIndex(filePath, matcher);
+        try {
+            return search(new PathEntry(filePath, Files.readAttributes(filePath, BasicFileAttributes.class)), matcher);
+        } catch(IOException e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+    /**
+     * search a file for many words at once with the mode given on creation, from the text index if the file didn't change since it was indexed.
+     * <p> with a single word its the same as {@link #searchIndexed(Path, WordMatcher)}.
+     * @param filePath - the file to search for the words.
+     * @param words - the words to search in a file.
+     * @return the matching lines with the format "file:line\twords\ttext", the words are separated by comma.
+     */
+    public List<String> searchIndexed(Path filePath, MultiWordMatcher words) {
+        if(words.size() == 1) return searchIndexed(filePath, words.getMatcher(0));
+        useIndex(filePath, words);
+        try {
+            return search(new PathEntry(filePath, Files.readAttributes(filePath, BasicFileAttributes.class)), words);
+        } catch(IOException e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+    /**
+     * search a file with an engine and the mode given on creation.
+     * <p> --mmap scans the bytes for the word and literal engines, the regex engine always decodes the lines.
+     * @param filePath - the file to search.
+     * @param engine - the prepared pattern to search.
+     * @return the matching lines with the format "file:line\t\ttext".
+     */
+    public List<String> search(Path filePath, SearchEngine engine) {
+        if(engine instanceof WordMatcher matcher) return search(filePath, matcher);
+        if(mapped && engine instanceof LiteralMatcher literal) return searchLiteralInMappedFile(filePath, literal);
+        return searchInFile(filePath, engine);
+    }
+    /**
+     * search a file for many words at once with the mode given on creation.
+     * @param filePath - the file to search for the words.
+     * @param words - the words to search in a file.
+     * @return the matching lines with the format "file:line\twords\ttext".
+     */
+    public List<String> search(Path filePath, MultiWordMatcher words) {
+        return mapped ? searchWordsInMappedFile(filePath, words) : searchWordsInFile(filePath, words);
+    }
+    /**
+     * load the text index that covers a path and the lines of the word.
+     */
+    private void useIndex(Path path, WordMatcher matcher) {
+        index = TextIndex.find(path);
+        indexedLines = index != null ? index.lookup(matcher) : null;
+    }
+    /**
+     * load the text index that covers a path and the lines of any of the words.
+     */
+    private void useIndex(Path path, MultiWordMatcher words) {
+        index = TextIndex.find(path);
+        if(index == null) return;
+        Map<Integer, int[]> lines = new HashMap<>();
+        for(int i=0; i<words.size(); ++i) {
+            index.lookup(words.getMatcher(i)).forEach((file, found) -> lines.merge(file, found, SearchUtils::union));
+        }
+        indexedLines = lines;
+    }
+    /**
+     * @return the sorted line numbers of both lists without repetitions.
+     */
+    private static int[] union(int[] a, int[] b) {
+        return IntStream.concat(Arrays.stream(a), Arrays.stream(b)).sorted().distinct().toArray();
+    }
+    /**
+     * search a walked file, from the text index if the file didn't change since it was indexed.
+     */
+    private List<String> search(PathEntry entry, WordMatcher matcher) {
+        int id = index != null ? index.getFileId(entry.path(), entry.attributes()) : -1;
+        if(id == -1) {
+            searchedFiles.incrementAndGet();
+            return search(entry.path(), matcher);
+        }
+        indexedFiles.incrementAndGet();
+        int[] lines = indexedLines.get(id);
+        return lines == null ? List.of() : readLines(entry.path(), lines, null);
+    }
+    /**
+     * search a walked file for many words, from the text index if the file didn't change since it was indexed.
+     */
+    private List<String> search(PathEntry entry, MultiWordMatcher words) {
+        int id = index != null ? index.getFileId(entry.path(), entry.attributes()) : -1;
+        if(id == -1) {
+            searchedFiles.incrementAndGet();
+            return search(entry.path(), words);
+        }
+        indexedFiles.incrementAndGet();
+        int[] lines = indexedLines.get(id);
+        return lines == null ? List.of() : readLines(entry.path(), lines, words);
+    }
+    /**
+     * read the indexed lines of a file.
+     * @param lines - the sorted line numbers.
+     * @param words - the searched words to show on each line, null for a single word.
+     * @return the lines with the format "file:line\tword\ttext".
+     */
+    private List<String> readLines(Path filePath, int[] lines, MultiWordMatcher words) {
+        List<String> results = new ArrayList<>();
+        try(BufferedReader reader = Files.newBufferedReader(filePath)) {
+            String fileURI = filePath.toString();
+            String l;
+            int lineNumber = 0;
+            int next = 0;
+            while(next < lines.length && (l = reader.readLine()) != null) {
+                ++lineNumber;
+                if(lineNumber == lines[next]) {
+                    String matched = words == null ? "" : String.join(",", words.matches(l));
+                    results.add(String.format(WORDS_FORMAT, fileURI, lineNumber, matched, l));
+                    ++next;
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return results;
+    }
+    /**
+     * search in the file lines for a particular word, reading one line at a time.
+     * @param filePath - the file to read lines and search for the word.
+     * @param word - the word to search in a file.
+     * @return the matching lines with the format "file:line\t\ttext".
+     */
+    public List<String> searchWordInFile(Path filePath, String word) {
+        return searchWordInFile(filePath, new WordMatcher(word));
+    }
+    /**
+     * search in the file lines for a prepared word, reading one line at a time.
+     * @param filePath - the file to read lines and search for the word.
+     * @param matcher - the word to search in a file.
+     * @return the matching lines with the format "file:line\t\ttext".
+     */
+    public List<String> searchWordInFile(Path filePath, WordMatcher matcher) {
+        return searchInFile(filePath, matcher);
+    }
+    /**
+     * search in the file lines with an engine, reading one line at a time.
+     * @param filePath - the file to read lines and search.
+     * @param engine - the prepared pattern to search.
+     * @return the matching lines with the format "file:line\t\ttext".
+     */
+    public List<String> searchInFile(Path filePath, SearchEngine engine) {
+        List<String> results = new ArrayList<>();
+        try(BufferedReader reader = Files.newBufferedReader(filePath)) {
+            String fileURI = filePath.toString();
+            String l;
+            int lineNumber = 0;
+            while((l = reader.readLine()) != null) {
+                ++lineNumber;
+                if(engine.matches(l)) {
+                    results.add(String.format("%s:%d\t\t%s", fileURI, lineNumber, l));
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return results;
+    }
+    /**
+     * search in the file lines for many words at once, reading one line at a time.
+     * @param filePath - the file to read lines and search for the words.
+     * @param words - the words to search in a file.
+     * @return the matching lines with the format "file:line\twords\ttext".
+     */
+    public List<String> searchWordsInFile(Path filePath, MultiWordMatcher words) {
+        List<String> results = new ArrayList<>();
+        try(BufferedReader reader = Files.newBufferedReader(filePath)) {
+            String fileURI = filePath.toString();
+            String l;
+            int lineNumber = 0;
+            while((l = reader.readLine()) != null) {
+                ++lineNumber;
+                List<String> matched = words.matches(l);
+                if(!matched.isEmpty()) {
+                    results.add(String.format(WORDS_FORMAT, fileURI, lineNumber, String.join(",", matched), l));
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return results;
+    }
+    /**
+     * search a memory-mapped file for a prepared word, scanning the bytes directly.
+     * <p> only the matching lines are decoded, line numbers are counted by scanning the new lines.
+     * <p> files bigger than {@link #MAPPED_CHUNK} bytes are mapped in chunks that end on a line terminator.
+     * <p> bytes outside [A-Za-z0-9], including every byte of a multi-byte UTF-8 character, are word boundaries as in {@link WordMatcher}.
+     * @param filePath - the file to map and search for the word.
+     * @param matcher - the word to search in a file.
+     * @return the matching lines with the format "file:line\t\ttext".
+     */
+    public List<String> searchWordInMappedFile(Path filePath, WordMatcher matcher) {
+        List<String> results = new ArrayList<>();
+        char[] folded = matcher.getWord();
+        if(folded == null) return results;
+        byte[] word = new byte[folded.length];
+        for(int i=0; i<word.length; ++i) word[i] = (byte) folded[i];
+
+        mapChunks(filePath, results, (buffer, end, fileURI, lineNumber) -> scanMapped(buffer, end, word, fileURI, lineNumber, results));
+        return results;
+    }
+    /**
+     * search a memory-mapped file for a text, jumping over the bytes with the shifts of {@link LiteralMatcher}.
+     * <p> only the lines between the matches are scanned for line terminators, to count the line numbers.
+     * @param filePath - the file to map and search for the text.
+     * @param literal - the text to search in a file.
+     * @return the matching lines with the format "file:line\t\ttext".
+     */
+    public List<String> searchLiteralInMappedFile(Path filePath, LiteralMatcher literal) {
+        List<String> results = new ArrayList<>();
+        mapChunks(filePath, results, (buffer, end, fileURI, lineNumber) -> scanMappedLiteral(buffer, end, literal, fileURI, lineNumber, results));
+        return results;
+    }
+    /**
+     * search a memory-mapped file for many words at once, scanning the bytes with the automaton of the words.
+     * @param filePath - the file to map and search for the words.
+     * @param words - the words to search in a file.
+     * @return the matching lines with the format "file:line\twords\ttext".
+     */
+    public List<String> searchWordsInMappedFile(Path filePath, MultiWordMatcher words) {
+        List<String> results = new ArrayList<>();
+        if(words.size() == 0) return results;
+        mapChunks(filePath, results, (buffer, end, fileURI, lineNumber) -> scanMappedWords(buffer, end, words, fileURI, lineNumber, results));
+        return results;
+    }
+    /**
+     * scans a mapped chunk until its end and returns the line number of the first line after it.
+     */
+    private interface ChunkScanner {
+        long scan(MappedByteBuffer buffer, int end, String fileURI, long lineNumber);
+    }
+    /**
+     * map a file in chunks that end on a line terminator and scan each one.
+     */
+    private void mapChunks(Path filePath, List<String> results, ChunkScanner scanner) {
+        try(FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            String fileURI = filePath.toString();
+            long size = channel.size();
+            long position = 0;
+            long lineNumber = 1;
+            while(position < size) {
+                int length = (int) Math.min(MAPPED_CHUNK, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                // scan until the last line terminator of the chunk, the rest is scanned again with the next chunk.
+                // a \r on the last byte may be followed by a \n on the next chunk, so it isn't a terminator yet.
+                int end = length;
+                if(!last) {
+                    while(end > 0) {
+                        byte b = buffer.get(end-1);
+                        if(b == '\n' || (b == '\r' && end < length)) break;
+                        --end;
+                    }
+                    // a line longer than the chunk is scanned as it is.
+                    if(end == 0) end = length;
+                }
+                lineNumber = scanner.scan(buffer, end, fileURI, lineNumber);
+                position += end;
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * scan a mapped chunk for the word and decode the lines that contain it.
+     * @return the line number of the first line after the chunk.
+     */
+    private long scanMapped(MappedByteBuffer buffer, int end, byte[] word, String fileURI, long lineNumber, List<String> results) {
+        final int length = word.length;
+        int lineStart = 0;
+        int k = 0;
+        boolean matched = false;
+        for(int i=0; i<end; ++i) {
+            byte b = buffer.get(i);
+            if(WordMatcher.isAlphaNumeric(b)) {
+                if(k >= 0) {
+                    k = k < length && toLowerCase(b) == word[k] ? k+1 : -1;
+                }
+                continue;
+            }
+            if(k == length) matched = true;
+            k = 0;
+            // same line terminators as BufferedReader: \n, \r or \r\n.
+            if(b == '\n' || b == '\r') {
+                int lineEnd = i;
+                if(b == '\r' && i+1 < end && buffer.get(i+1) == '\n') ++i;
+                if(matched) results.add(decodeLine(buffer, lineStart, lineEnd, fileURI, lineNumber));
+                matched = false;
+                lineStart = i+1;
+                ++lineNumber;
+            }
+        }
+        // the last line of the file may not end with a new line.
+        if(k == length) matched = true;
+        if(matched && lineStart < end) {
+            results.add(decodeLine(buffer, lineStart, end, fileURI, lineNumber));
+        }
+        return lineNumber;
+    }
+    /**
+     * scan a mapped chunk with the automaton of the words and decode the lines that contain any of them.
+     * @return the line number of the first line after the chunk.
+     */
+    private long scanMappedWords(MappedByteBuffer buffer, int end, MultiWordMatcher words, String fileURI, long lineNumber, List<String> results) {
+        // the words of the current line in the order they appear.
+        boolean[] found = new boolean[words.size()];
+        int[] order = new int[words.size()];
+        int matched = 0;
+        int lineStart = 0;
+        int state = 0;
+        for(int i=0; i<end; ++i) {
+            byte b = buffer.get(i);
+            if(WordMatcher.isAlphaNumeric(b)) {
+                if(state != MultiWordMatcher.DEAD) state = words.next(state, b);
+                continue;
+            }
+            matched = accept(words.accepted(state), found, order, matched);
+            state = 0;
+            // same line terminators as BufferedReader: \n, \r or \r\n.
+            if(b == '\n' || b == '\r') {
+                int lineEnd = i;
+                if(b == '\r' && i+1 < end && buffer.get(i+1) == '\n') ++i;
+                if(matched > 0) results.add(decodeLine(buffer, lineStart, lineEnd, fileURI, lineNumber, label(words, found, order, matched)));
+                matched = 0;
+                lineStart = i+1;
+                ++lineNumber;
+            }
+        }
+        // the last line of the file may not end with a new line.
+        matched = accept(words.accepted(state), found, order, matched);
+        if(matched > 0 && lineStart < end) {
+            results.add(decodeLine(buffer, lineStart, end, fileURI, lineNumber, label(words, found, order, matched)));
+        }
+        return lineNumber;
+    }
+    /**
+     * find each match of the text on a mapped chunk and decode its line.
+     * @return the line number of the first line after the chunk.
+     */
+    private long scanMappedLiteral(MappedByteBuffer buffer, int end, LiteralMatcher literal, String fileURI, long lineNumber, List<String> results) {
+        int lineStart = 0;
+        // the terminators before counted are already counted.
+        int counted = 0;
+        int match;
+        while((match = literal.indexIn(buffer, counted, end)) != -1) {
+            for(int i=counted; i<match; ++i) {
+                byte b = buffer.get(i);
+                // same line terminators as BufferedReader: \n, \r or \r\n.
+                if(b == '\n' || b == '\r') {
+                    if(b == '\r' && i+1 < end && buffer.get(i+1) == '\n') ++i;
+                    lineStart = i+1;
+                    ++lineNumber;
+                }
+            }
+            int lineEnd = match;
+            while(lineEnd < end && buffer.get(lineEnd) != '\n' && buffer.get(lineEnd) != '\r') ++lineEnd;
+            results.add(decodeLine(buffer, lineStart, lineEnd, fileURI, lineNumber));
+            counted = lineEnd;
+        }
+        for(int i=counted; i<end; ++i) {
+            byte b = buffer.get(i);
+            if(b == '\n' || b == '\r') {
+                if(b == '\r' && i+1 < end && buffer.get(i+1) == '\n') ++i;
+                ++lineNumber;
+            }
+        }
+        return lineNumber;
+    }
+    /**
+     * add a word to the words of the line if its not there yet.
+     * @return the number of words of the line.
+     */
+    private static int accept(int word, boolean[] found, int[] order, int matched) {
+        if(word == -1 || found[word]) return matched;
+        found[word] = true;
+        order[matched] = word;
+        return matched + 1;
+    }
+    /**
+     * join the words of the line and clear them for the next line.
+     */
+    private static String label(MultiWordMatcher words, boolean[] found, int[] order, int matched) {
+        StringBuilder label = new StringBuilder();
+        for(int j=0; j<matched; ++j) {
+            if(j > 0) label.append(',');
+            label.append(words.getWord(order[j]));
+            found[order[j]] = false;
+        }
+        return label.toString();
+    }
+    private static byte toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b | 0x20) : b;
+    }
+    private String decodeLine(MappedByteBuffer buffer, int start, int end, String fileURI, long lineNumber) {
+        return decodeLine(buffer, start, end, fileURI, lineNumber, "");
+    }
+    private String decodeLine(MappedByteBuffer buffer, int start, int end, String fileURI, long lineNumber, String words) {
+        byte[] line = new byte[end - start];
+        buffer.get(start, line);
+        return String.format(WORDS_FORMAT, fileURI, lineNumber, words, new String(line, StandardCharsets.UTF_8));
+    }
+    /**
+     * search in the directory files for a particular word using the worker pool.
+     * <p> each file result is printed as a block followed by an empty line.
+     * @param directoryPath - the directory to walk.
+     * @param word - the word to search in the files.
+     * @param level - the nested level to reach, 0 means recursively.
+     */
+    public void searchWordInDirectory(Path directoryPath, String word, int level) {
+        WordMatcher matcher = new WordMatcher(word);
+        useIndex(directoryPath, matcher);
+        searchDirectory(directoryPath, level, entry -> search(entry, matcher));
+    }
+    /**
+     * search in the directory files for many words at once using the worker pool.
+     * <p> each matching line shows the words it contains, with a single word its the same as {@link #searchWordInDirectory(Path, String, int)}.
+     * @param directoryPath - the directory to walk.
+     * @param words - the words to search in the files.
+     * @param level - the nested level to reach, 0 means recursively.
+     */
+    public void searchWordsInDirectory(Path directoryPath, MultiWordMatcher words, int level) {
+        if(words.size() == 1) {
+            searchWordInDirectory(directoryPath, words.getWord(0), level);
+            return;
+        }
+        useIndex(directoryPath, words);
+        searchDirectory(directoryPath, level, entry -> search(entry, words));
+    }
+    /**
+     * search in the directory files with an engine using the worker pool.
+     * <p> only the word engine uses the text index, the other engines read every file.
+     * @param directoryPath - the directory to walk.
+     * @param engine - the prepared pattern to search.
+     * @param level - the nested level to reach, 0 means recursively.
+     */
+    public void searchInDirectory(Path directoryPath, SearchEngine engine, int level) {
+        if(engine instanceof WordMatcher matcher) {
+            useIndex(directoryPath, matcher);
+            searchDirectory(directoryPath, level, entry -> search(entry, matcher));
+            return;
+        }
+        searchDirectory(directoryPath, level, entry -> search(entry.path(), engine));
+    }
+    /**
+     * search each file of the directory with the searcher and print the results.
+     */
+    private void searchDirectory(Path directoryPath, int level, Function<PathEntry, List<String>> searcher) {
+        WalkPipeline<List<String>> pipeline = new WalkPipeline<>("search", jobs, IN_FLIGHT_PER_JOB, ordered);
+        try {
+            pipeline.run(
+                    () -> fileUtils.getLazilyDirEntries(directoryPath.toString(), level).filter(PathEntry::isRegularFile),
+                    searcher,
+                    (entry, e) -> List.of("[Error] Couldn't search => " + entry.path() + " " + e),
+                    results -> {
+                        for(String l: results) {
+                            console.printf(CONSOLE_FORMAT, l);
+                        }
+                        console.printf(CONSOLE_FORMAT, "");
+                        // nobody reads the results anymore, like a closed pipe.
+                        return !console.checkError();
+                    }
+            );
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        if(index != null) {
+            console.verbose("[Verbose] %d files answered from the index of %s, %d files searched", indexedFiles.get(), index.getRoot(), searchedFiles.get());
+        }
+    }
+}
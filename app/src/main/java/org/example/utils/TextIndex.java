@@ -0,0 +1,307 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * On-disk inverted index of the words of the files of a tree.
+ * <p> A word is a run of [A-Za-z0-9] folded to lower case, like the tokens of {@link WordMatcher}.
+ * Each word maps to the files and lines where it appears, the file ids and the line numbers are written as varint deltas.
+ * <p> The words are sorted and front-coded, with a full word every {@link #RESTART_INTERVAL} words,
+ * so a lookup is a binary search over those words and a short scan.
+ * <p> The files keep the size and modification time they had when indexed, a file that changed since then
+ * or a file that wasn't indexed, like a binary file, must be searched again.
+ */
+public final class TextIndex {
+    private static final int MAGIC = 0x54494458; // "TIDX"
+    private static final int VERSION = 1;
+    private static final String EXTENSION = ".tix";
+    private static final int RESTART_INTERVAL = 64;
+    private static final byte INDEXED = 1;
+
+    /**
+     * A file of the index.
+     * @param path - the path relative to the root.
+     * @param size - the size in bytes when it was indexed.
+     * @param modified - the last modification time in milliseconds when it was indexed.
+     * @param indexed - false if its words are not in the index and it has to be searched.
+     */
+    public record FileEntry(String path, long size, long modified, boolean indexed) {}
+
+    /**
+     * The lines where each word appears, as file id and line number pairs in file order.
+     */
+    public static final class Postings {
+        private int[] pairs = new int[4];
+        private int size;
+
+        public void add(int file, int line) {
+            if(size == pairs.length) pairs = Arrays.copyOf(pairs, size * 2);
+            pairs[size++] = file;
+            pairs[size++] = line;
+        }
+    }
+
+    private final Path root;
+    private final List<FileEntry> files;
+    private final int words;
+    private final ByteBuffer restarts;
+    private final ByteBuffer dictionary;
+    private final ByteBuffer postings;
+    private final Map<String, Integer> fileIds;
+
+    private TextIndex(Path root, List<FileEntry> files, int words, ByteBuffer restarts, ByteBuffer dictionary, ByteBuffer postings) {
+        this.root = root;
+        this.files = files;
+        this.words = words;
+        this.restarts = restarts;
+        this.dictionary = dictionary;
+        this.postings = postings;
+        fileIds = new HashMap<>(files.size() * 2);
+        for(int i=0; i<files.size(); ++i) fileIds.put(files.get(i).path(), i);
+    }
+    /**
+     * @param root - the indexed directory.
+     * @return the text index file of the root, it may not exist yet.
+     */
+    public static Path getIndexFile(Path root) {
+        return PathIndex.getIndexFile(root, EXTENSION);
+    }
+    /**
+     * Find the text index of a path or of the nearest parent that has one.
+     * @param path - the file or directory to search.
+     * @return the loaded index, null if no index covers the path or it can't be read.
+     */
+    public static TextIndex find(Path path) {
+        for(Path p = path.toAbsolutePath().normalize(); p != null; p = p.getParent()) {
+            Path indexFile = getIndexFile(p);
+            if(!Files.isRegularFile(indexFile)) continue;
+            try {
+                return load(indexFile);
+            } catch(IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        return null;
+    }
+    /**
+     * Read a text index file, the file table is decoded and the words are read on each lookup.
+     * @param indexFile - the index file.
+     * @return the loaded index.
+     * @throws IOException if the file can't be read or its not a text index.
+     */
+    public static TextIndex load(Path indexFile) throws IOException {
+        // not mapped, so a newer index can replace the file while this one is in use.
+        ByteBuffer buffer = PathIndex.readIndexFile(indexFile);
+        if(buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a text index => " + indexFile);
+        }
+        int words = buffer.getInt();
+        int restartsLength = buffer.getInt();
+        int dictionaryLength = buffer.getInt();
+        long postingsLength = buffer.getLong();
+        Path root = Paths.get(readString(buffer));
+        int count = (int) PathIndex.readVarLong(buffer);
+        List<FileEntry> files = new ArrayList<>(count);
+        for(int i=0; i<count; ++i) {
+            String path = readString(buffer);
+            long size = PathIndex.readVarLong(buffer);
+            long modified = PathIndex.readVarLong(buffer);
+            files.add(new FileEntry(path, size, modified, buffer.get() == INDEXED));
+        }
+        ByteBuffer restarts = buffer.slice(buffer.position(), restartsLength);
+        buffer.position(buffer.position() + restartsLength);
+        ByteBuffer dictionary = buffer.slice(buffer.position(), dictionaryLength);
+        buffer.position(buffer.position() + dictionaryLength);
+        ByteBuffer postings = buffer.slice(buffer.position(), (int) postingsLength);
+        return new TextIndex(root, files, words, restarts, dictionary, postings);
+    }
+    /**
+     * Write the text index of a root, the file is replaced at once so a reader never sees a partial index.
+     * @param root - the absolute indexed directory.
+     * @param files - the files of the tree, the position of each file is its id.
+     * @param words - the postings of each word sorted by word.
+     * @return the index file.
+     */
+    public static Path write(Path root, List<FileEntry> files, SortedMap<String, Postings> words) throws IOException {
+        ByteArrayOutputStream restarts = new ByteArrayOutputStream();
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        ByteArrayOutputStream postings = new ByteArrayOutputStream();
+        DataOutputStream restartOutput = new DataOutputStream(restarts);
+        byte[] previous = new byte[0];
+        int n = 0;
+        for(Map.Entry<String, Postings> e: words.entrySet()) {
+            byte[] word = e.getKey().getBytes(StandardCharsets.US_ASCII);
+            int shared = 0;
+            if(n % RESTART_INTERVAL == 0) {
+                restartOutput.writeInt(dictionary.size());
+            } else {
+                while(shared < previous.length && shared < word.length && previous[shared] == word[shared]) ++shared;
+            }
+            PathIndex.writeVarLong(dictionary, shared);
+            PathIndex.writeVarLong(dictionary, word.length - shared);
+            dictionary.write(word, shared, word.length - shared);
+            PathIndex.writeVarLong(dictionary, postings.size());
+            writePostings(postings, e.getValue());
+            previous = word;
+            ++n;
+        }
+        Path indexFile = getIndexFile(root);
+        Files.createDirectories(indexFile.getParent());
+        Path temporary = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(words.size());
+            output.writeInt(restarts.size());
+            output.writeInt(dictionary.size());
+            output.writeLong(postings.size());
+            writeString(output, root.toString());
+            PathIndex.writeVarLong(output, files.size());
+            for(FileEntry f: files) {
+                writeString(output, f.path());
+                PathIndex.writeVarLong(output, f.size());
+                PathIndex.writeVarLong(output, f.modified());
+                output.writeByte(f.indexed() ? INDEXED : 0);
+            }
+            restarts.writeTo(output);
+            dictionary.writeTo(output);
+            postings.writeTo(output);
+        }
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return indexFile;
+    }
+    /**
+     * for each file: the file id delta, the number of lines and the line number deltas.
+     */
+    private static void writePostings(ByteArrayOutputStream output, Postings p) throws IOException {
+        int fileCount = 0;
+        for(int i=0; i<p.size; i+=2) {
+            if(i == 0 || p.pairs[i] != p.pairs[i-2]) ++fileCount;
+        }
+        PathIndex.writeVarLong(output, fileCount);
+        int previousFile = 0;
+        int i = 0;
+        while(i < p.size) {
+            int file = p.pairs[i];
+            int end = i;
+            while(end < p.size && p.pairs[end] == file) end += 2;
+            PathIndex.writeVarLong(output, file - previousFile);
+            PathIndex.writeVarLong(output, (end - i) / 2);
+            int previousLine = 0;
+            for(; i<end; i+=2) {
+                PathIndex.writeVarLong(output, p.pairs[i+1] - previousLine);
+                previousLine = p.pairs[i+1];
+            }
+            previousFile = file;
+        }
+    }
+    private static void writeString(DataOutputStream output, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        PathIndex.writeVarLong(output, bytes.length);
+        output.write(bytes);
+    }
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[(int) PathIndex.readVarLong(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    public Path getRoot() {
+        return root;
+    }
+    /**
+     * Get the indexed file of a path if it didn't change since it was indexed.
+     * @param filePath - the file to search.
+     * @param attributes - the current attributes of the file.
+     * @return the id of the file, -1 if the file is not indexed or it changed.
+     */
+    public int getFileId(Path filePath, BasicFileAttributes attributes) {
+        Path absolute = filePath.toAbsolutePath().normalize();
+        if(!absolute.startsWith(root)) return -1;
+        Integer id = fileIds.get(root.relativize(absolute).toString());
+        if(id == null) return -1;
+        FileEntry f = files.get(id);
+        if(!f.indexed() || f.size() != attributes.size() || f.modified() != attributes.lastModifiedTime().toMillis()) return -1;
+        return id;
+    }
+    /**
+     * Get the lines where a word appears.
+     * @param matcher - the word to search.
+     * @return the sorted line numbers of each file id that has the word.
+     */
+    public Map<Integer, int[]> lookup(WordMatcher matcher) {
+        Map<Integer, int[]> lines = new HashMap<>();
+        char[] folded = matcher.getWord();
+        if(folded == null || words == 0) return lines;
+        byte[] word = new byte[folded.length];
+        for(int i=0; i<word.length; ++i) word[i] = (byte) folded[i];
+        long offset = findPostings(word);
+        if(offset < 0) return lines;
+        ByteBuffer buffer = postings.duplicate();
+        buffer.position((int) offset);
+        int fileCount = (int) PathIndex.readVarLong(buffer);
+        int file = 0;
+        for(int i=0; i<fileCount; ++i) {
+            file += (int) PathIndex.readVarLong(buffer);
+            int[] numbers = new int[(int) PathIndex.readVarLong(buffer)];
+            int line = 0;
+            for(int j=0; j<numbers.length; ++j) {
+                line += (int) PathIndex.readVarLong(buffer);
+                numbers[j] = line;
+            }
+            lines.put(file, numbers);
+        }
+        return lines;
+    }
+    /**
+     * binary search of the restart words, then a scan of the words that follow the last one before the word.
+     * @return the position of the word postings, -1 if the word is not indexed.
+     */
+    private long findPostings(byte[] word) {
+        int low = 0;
+        int high = restarts.limit() / Integer.BYTES - 1;
+        ByteBuffer buffer = dictionary.duplicate();
+        while(low < high) {
+            int middle = (low + high + 1) >>> 1;
+            buffer.position(restarts.getInt(middle * Integer.BYTES));
+            PathIndex.readVarLong(buffer);
+            byte[] first = new byte[(int) PathIndex.readVarLong(buffer)];
+            buffer.get(first);
+            if(Arrays.compare(first, word) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        buffer.position(restarts.getInt(low * Integer.BYTES));
+        byte[] current = new byte[0];
+        for(int i=low * RESTART_INTERVAL; i<words && i<(low+1) * RESTART_INTERVAL; ++i) {
+            int shared = (int) PathIndex.readVarLong(buffer);
+            int suffix = (int) PathIndex.readVarLong(buffer);
+            current = Arrays.copyOf(current, shared + suffix);
+            buffer.get(current, shared, suffix);
+            long offset = PathIndex.readVarLong(buffer);
+            int compared = Arrays.compare(current, word);
+            if(compared == 0) return offset;
+            if(compared > 0) return -1;
+        }
+        return -1;
+    }
+}
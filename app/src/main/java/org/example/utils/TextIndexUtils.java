@@ -0,0 +1,136 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Builds the {@link TextIndex} of a tree.
+ * <p> The files are split into words in parallel and merged in walk order, so each file id is its walk position.
+ * <p> Binary files, the ones with a NUL byte at the start, and files bigger than {@link #MAX_INDEXED_SIZE} are not indexed,
+ * the search reads them every time.
+ */
+public class TextIndexUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+    private static final long MAX_INDEXED_SIZE = 64L << 20;
+    private static final int BINARY_CHECK_SIZE = 8192;
+    /**
+     * number of files each worker can have waiting to be merged.
+     */
+    private static final int IN_FLIGHT_PER_JOB = 16;
+
+    /**
+     * the words of a file with the line of each one, a word appears once per line.
+     */
+    private record FileWords(PathEntry entry, List<String> words, List<Integer> lines, boolean indexed) {}
+
+    private FileUtils fileUtils;
+    private int jobs;
+
+    public TextIndexUtils(FileUtils fileUtils, int jobs) {
+        this.fileUtils = fileUtils;
+        this.jobs = jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+    }
+    /**
+     * Read every file of a tree and write its text index.
+     * @param rootPath - the directory to index.
+     */
+    public void buildTextIndex(Path rootPath) {
+        Path root = rootPath.toAbsolutePath().normalize();
+        if(!Files.isDirectory(root)) {
+            console.printf(CONSOLE_FORMAT, "[Error] Only directories can be indexed => " + root);
+            return;
+        }
+        WalkPipeline<FileWords> pipeline = new WalkPipeline<>("text-index", jobs, IN_FLIGHT_PER_JOB, true);
+        List<TextIndex.FileEntry> files = new ArrayList<>();
+        Map<String, TextIndex.Postings> words = new HashMap<>();
+        int[] skipped = {0};
+        try {
+            pipeline.run(
+                    () -> fileUtils.getLazilyDirEntries(root.toString(), 0).filter(PathEntry::isRegularFile),
+                    TextIndexUtils::readWords,
+                    // a file that failed is searched without the index.
+                    (entry, e) -> new FileWords(entry, List.of(), List.of(), false),
+                    f -> {
+                        int id = files.size();
+                        files.add(new TextIndex.FileEntry(
+                                root.relativize(f.entry().path()).toString(),
+                                f.entry().size(),
+                                f.entry().attributes().lastModifiedTime().toMillis(),
+                                f.indexed()
+                        ));
+                        if(!f.indexed()) ++skipped[0];
+                        for(int i=0; i<f.words().size(); ++i) {
+                            words.computeIfAbsent(f.words().get(i), k -> new TextIndex.Postings()).add(id, f.lines().get(i));
+                        }
+                        return true;
+                    }
+            );
+            if(Thread.currentThread().isInterrupted()) return;
+            Path indexFile = TextIndex.write(root, files, new TreeMap<>(words));
+            console.printf(
+                    "[Info] Indexed %d words of %d files of %s into %s, %d files are searched without the index%n",
+                    words.size(), files.size(), root, indexFile, skipped[0]
+            );
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * split a file into lower case words with the same line numbers as {@link java.io.BufferedReader#readLine()}.
+     * @return the words of the file, null if it can't be read.
+     */
+    private static FileWords readWords(PathEntry entry) {
+        List<String> words = new ArrayList<>();
+        List<Integer> lines = new ArrayList<>();
+        if(entry.size() > MAX_INDEXED_SIZE) return new FileWords(entry, words, lines, false);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(entry.path());
+        } catch(IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        for(int i=0; i<Math.min(content.length, BINARY_CHECK_SIZE); ++i) {
+            if(content[i] == 0) return new FileWords(entry, words, lines, false);
+        }
+        Set<String> lineWords = new HashSet<>();
+        int line = 1;
+        int start = -1;
+        for(int i=0; i<=content.length; ++i) {
+            byte b = i < content.length ? content[i] : (byte) '\n';
+            if(WordMatcher.isAlphaNumeric(b)) {
+                if(start == -1) start = i;
+                continue;
+            }
+            if(start != -1) {
+                for(int j=start; j<i; ++j) {
+                    if(content[j] >= 'A' && content[j] <= 'Z') content[j] |= 0x20;
+                }
+                String word = new String(content, start, i - start, StandardCharsets.US_ASCII);
+                if(lineWords.add(word)) {
+                    words.add(word);
+                    lines.add(line);
+                }
+                start = -1;
+            }
+            // same line terminators as BufferedReader: \n, \r or \r\n.
+            if(b == '\n' || b == '\r') {
+                if(b == '\r' && i+1 < content.length && content[i+1] == '\n') ++i;
+                lineWords.clear();
+                ++line;
+            }
+        }
+        return new FileWords(entry, words, lines, true);
+    }
+}
@@ -8,6 +8,7 @@ import java.io.FileWriter;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.LineNumberReader;
+import java.io.Writer;
 
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -32,6 +33,28 @@ public record TextUtils() {
         }
         return lines.toString();
     }
+    /**
+     * statically write a file lines prefixed by their line number, one line at a time.
+     * <p> only one line is kept in memory, the output is flushed but not closed.
+     * <p> the reading stops when the output is an {@link OutputUtils} that can't be written anymore.
+     * @param fileURI - the file to read its content.
+     * @param output - where to write the "number:line" lines.
+     */
+    public static void writeNumberedLines(String fileURI, Writer output) throws IOException {
+        try(BufferedReader buffer = new BufferedReader(new FileReader(new File(fileURI)), 1 << 16)) {
+            String l;
+            long lineNumber = 0;
+            OutputUtils sink = output instanceof OutputUtils o ? o : null;
+            while((l = buffer.readLine()) != null) {
+                if(sink != null && sink.checkError()) return;
+                output.write(Long.toString(++lineNumber));
+                output.write(':');
+                output.write(l);
+                output.write(System.lineSeparator());
+            }
+        }
+        output.flush();
+    }
     /**
      * A stream with the file content to be consumed.
      * <p> use this with a try-resource to close on end.
@@ -75,26 +98,13 @@ public record TextUtils() {
     }
     /**
      * Determine if the line contains a specific word.
+     * <p> when the same word is searched on many lines prepare a {@link WordMatcher} once instead.
      * @param line - is the line that possibly contains a word.
      * @param second - is the word to search.
      * @return true if the line contains that word, false otherwise.
      */
     public boolean lineContainsWord(String line, String word) {
-        if (line == null || word == null) return false;
-        if (line.isBlank() || word.isBlank()) return false;
-
-        String[] tokens = line
-            .replaceAll("[^A-Za-z0-9]+", " ")
-            .trim()
-            .split("\\s+");
-
-        for(int i=tokens.length-1; i>=0; --i) {
-            String token = tokens[i];
-            if (token.equalsIgnoreCase(word)) {
-                return true;
-            }
-        }
-        return false;
+        return new WordMatcher(word).matches(line);
     }
 
 }
@@ -0,0 +1,129 @@
+package org.example.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+
+/**
+ * Copy engine for the file contents.
+ * <p> Large files are copied with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * so the kernel can move the data itself (copy_file_range or sendfile on Linux).
+ * <p> Small files, or files where the channel transfer doesn't progress, use a loop over a direct buffer of each thread.
+ * <p> The timestamps and, where supported, the POSIX permissions are copied like {@link StandardCopyOption#COPY_ATTRIBUTES}.
+ */
+public final class TransferUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    /**
+     * files from this size are copied with the channel transfer.
+     */
+    private static final long TRANSFER_THRESHOLD = 1 << 20;
+    /**
+     * max bytes of a single channel transfer call.
+     */
+    private static final long TRANSFER_CHUNK = 1L << 30;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private TransferUtils() {
+    }
+    /**
+     * Copy a file with its attributes.
+     * <p> in verbose mode the throughput of the copy is reported.
+     * @param sourcePath - the file to copy.
+     * @param destination - the destination file.
+     * @param replace - true to replace the destination if it exists, otherwise the copy fails when it exists.
+     * @return the number of bytes copied.
+     */
+    public static long copy(Path sourcePath, Path destination, boolean replace) throws IOException {
+        return copy(sourcePath, Files.readAttributes(sourcePath, BasicFileAttributes.class), destination, replace);
+    }
+    /**
+     * Copy a file with the attributes already read for it, like the ones of a walked entry.
+     * @param sourcePath - the file to copy.
+     * @param attributes - the attributes of the source file.
+     * @param destination - the destination file.
+     * @param replace - true to replace the destination if it exists, otherwise the copy fails when it exists.
+     * @return the number of bytes copied.
+     */
+    public static long copy(Path sourcePath, BasicFileAttributes attributes, Path destination, boolean replace) throws IOException {
+        if(!attributes.isRegularFile()) {
+            // directories and special files keep the default copy.
+            if(replace) {
+                Files.copy(sourcePath, destination, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.copy(sourcePath, destination, StandardCopyOption.COPY_ATTRIBUTES);
+            }
+            return 0;
+        }
+        long start = System.nanoTime();
+        long size = attributes.size();
+        long transferred;
+        long buffered;
+        StandardOpenOption create = replace ? StandardOpenOption.CREATE : StandardOpenOption.CREATE_NEW;
+        try(
+            FileChannel input = FileChannel.open(sourcePath, StandardOpenOption.READ);
+            FileChannel output = FileChannel.open(destination, StandardOpenOption.WRITE, create, StandardOpenOption.TRUNCATE_EXISTING)
+        ) {
+            transferred = size >= TRANSFER_THRESHOLD ? transfer(input, output, size) : 0;
+            buffered = bufferedCopy(input, output, transferred);
+        }
+        long copied = transferred + buffered;
+        copyAttributes(sourcePath, destination, attributes);
+        if(console.isVerbose()) {
+            long nanos = Math.max(1, System.nanoTime() - start);
+            console.verbose(
+                    "[Verbose] %s %d bytes in %.1f ms (%.1f MB/s), %d via transfer, %d via buffer",
+                    sourcePath, copied, nanos / 1e6, copied / 1e6 / (nanos / 1e9), transferred, buffered
+            );
+        }
+        return copied;
+    }
+    /**
+     * Copy the channel content with the channel transfer.
+     * @return the bytes transferred, less than the size when the transfer stops progressing.
+     */
+    private static long transfer(FileChannel input, FileChannel output, long size) throws IOException {
+        long position = 0;
+        while(position < size) {
+            long n = input.transferTo(position, Math.min(TRANSFER_CHUNK, size - position), output);
+            if(n <= 0) break;
+            position += n;
+        }
+        return position;
+    }
+    /**
+     * Copy the channel content from a position until the end of the input with the direct buffer of this thread.
+     * @return the bytes copied.
+     */
+    private static long bufferedCopy(FileChannel input, FileChannel output, long position) throws IOException {
+        ByteBuffer buffer = BUFFERS.get();
+        long copied = 0;
+        input.position(position);
+        output.position(position);
+        buffer.clear();
+        while(input.read(buffer) != -1) {
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                copied += output.write(buffer);
+            }
+            buffer.clear();
+        }
+        return copied;
+    }
+    private static void copyAttributes(Path sourcePath, Path destination, BasicFileAttributes attributes) throws IOException {
+        PosixFileAttributeView posix = Files.getFileAttributeView(destination, PosixFileAttributeView.class);
+        if(posix != null) {
+            posix.setPermissions(Files.getPosixFilePermissions(sourcePath));
+        }
+        Files.getFileAttributeView(destination, BasicFileAttributeView.class).setTimes(
+                attributes.lastModifiedTime(), attributes.lastAccessTime(), attributes.creationTime()
+        );
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.utils;
+
+import java.util.Iterator;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import java.io.IOException;
+
+/**
+ * Bounded walker, worker pool and output stage shared by the commands that process the files of a tree in parallel.
+ * <p> A walker thread hands each entry to a fixed pool, at most jobs * inFlightPerJob results wait for the output,
+ * and the calling thread consumes them in walk order, or as they are done when not ordered.
+ * <p> A worker that throws is turned into the result of the error handler, so a failed file never stalls the walk.
+ * Any exit of the output stage interrupts the walker, cancels the pending work and waits for the running workers.
+ * @param <T> - the result of each file, null results are skipped.
+ */
+final class WalkPipeline<T> {
+    /**
+     * consumes the results on the calling thread.
+     */
+    interface Output<T> {
+        /**
+         * @param result - the result of a file.
+         * @return false to stop the pipeline.
+         */
+        boolean accept(T result) throws IOException;
+    }
+
+    private final Future<T> end = CompletableFuture.completedFuture(null);
+    private final String name;
+    private final int jobs;
+    private final int inFlightPerJob;
+    private final boolean ordered;
+
+    /**
+     * @param name - the prefix of the thread names.
+     * @param jobs - the number of workers.
+     * @param inFlightPerJob - number of results each worker can have waiting for the output.
+     * @param ordered - true to consume the results in walk order, false as they are done.
+     */
+    WalkPipeline(String name, int jobs, int inFlightPerJob, boolean ordered) {
+        this.name = name;
+        this.jobs = jobs;
+        this.inFlightPerJob = inFlightPerJob;
+        this.ordered = ordered;
+    }
+    /**
+     * Process every entry and consume the results until the walk ends or the output stops.
+     * @param entries - opens the entries to process, its closed by the walker.
+     * @param worker - the result of an entry, called on the pool.
+     * @param onError - the result of an entry whose worker threw.
+     * @param output - consumes the results.
+     * @throws IOException if the output fails.
+     */
+    void run(Supplier<Stream<PathEntry>> entries, Function<PathEntry, T> worker, BiFunction<PathEntry, Throwable, T> onError, Output<T> output) throws IOException {
+        Function<PathEntry, T> task = entry -> {
+            try {
+                return worker.apply(entry);
+            } catch(Throwable t) {
+                return onError.apply(entry, t);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(jobs, r -> {
+            Thread t = new Thread(r, name + "-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        BlockingQueue<Future<T>> results = new LinkedBlockingQueue<>();
+        Semaphore inFlight = new Semaphore(jobs * inFlightPerJob);
+        Thread walker = new Thread(() -> walk(entries, task, executor, results, inFlight), name + "-walker");
+        walker.setDaemon(true);
+        walker.start();
+        try {
+            Future<T> next;
+            while((next = results.take()) != end) {
+                try {
+                    T result = next.get();
+                    if(result != null && !output.accept(result)) return;
+                } finally {
+                    inFlight.release();
+                }
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e) {
+            e.printStackTrace();
+        } finally {
+            walker.interrupt();
+            executor.shutdownNow();
+            Future<T> pending;
+            while((pending = results.poll()) != null) {
+                pending.cancel(true);
+            }
+            // the workers are done before returning, so the caller can release what the discarded results hold.
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    /**
+     * walk the entries and hand each one to the workers.
+     * <p> in ordered mode the pending results are queued in walk order, otherwise each worker queues its result when done.
+     */
+    private void walk(Supplier<Stream<PathEntry>> entries, Function<PathEntry, T> task, ExecutorService executor, BlockingQueue<Future<T>> results, Semaphore inFlight) {
+        try(Stream<PathEntry> stream = entries.get()) {
+            Iterator<PathEntry> it = stream.iterator();
+            while(it.hasNext()) {
+                PathEntry entry = it.next();
+                inFlight.acquire();
+                if(ordered) {
+                    results.add(executor.submit(() -> task.apply(entry)));
+                } else {
+                    executor.execute(() -> results.add(CompletableFuture.completedFuture(task.apply(entry))));
+                }
+            }
+            if(!ordered) {
+                // every result must be queued before the end.
+                executor.shutdown();
+                while(!executor.isTerminated()) {
+                    executor.awaitTermination(1, TimeUnit.MINUTES);
+                }
+            }
+        } catch(InterruptedException | RejectedExecutionException e) {
+            // the output stage stopped.
+            Thread.currentThread().interrupt();
+        } catch(Exception e) {
+            e.printStackTrace();
+        } finally {
+            results.add(end);
+        }
+    }
+}
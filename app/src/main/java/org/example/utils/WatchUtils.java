@@ -0,0 +1,223 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Keeps an in-memory model of a tree up to date with the events of a {@link WatchService}.
+ * <p> Every directory of the tree is registered, each event is applied to the model and printed as a change line:
+ * "+" created, "-" deleted or "~" modified, followed by the type (d directory, f file, o other), the size and the path.
+ * <p> When the events of a directory overflow only that directory is walked again and compared with the model,
+ * the overflows of the keys ready at once are walked together, once per outermost directory.
+ */
+public class WatchUtils {
+    private static OutputUtils console = OutputUtils.getInstance();
+    private static final String CONSOLE_FORMAT = "%s%n";
+    private static final String CHANGE_FORMAT = "%c %c %d %s%n";
+
+    /**
+     * the state of a path in the model.
+     */
+    private record Snapshot(char type, long size, long modified) {}
+
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    /**
+     * sorted by path, so the paths of a directory subtree are next to each other.
+     */
+    private final NavigableMap<Path, Snapshot> model = new TreeMap<>();
+    private WatchService watcher;
+
+    /**
+     * Watch a tree until the program is stopped or the output is closed.
+     * <p> a closed output, like a daemon client that disconnected, is noticed on the first change written after it.
+     * @param rootPath - the directory to watch.
+     */
+    public void watch(Path rootPath) {
+        Path root = rootPath.toAbsolutePath().normalize();
+        if(!Files.isDirectory(root)) {
+            console.printf(CONSOLE_FORMAT, "[Error] Only directories can be watched => " + root);
+            return;
+        }
+        try(WatchService service = root.getFileSystem().newWatchService()) {
+            watcher = service;
+            scan(root, false);
+            console.printf("[Info] Watching %d directories and %d paths of %s%n", directories.size(), model.size(), root);
+            console.flush();
+            while(!console.checkError()) {
+                List<Path> overflowed = new ArrayList<>();
+                // drain the keys ready now, an overflow is reported on each key of the tree.
+                for(WatchKey key = watcher.take(); key != null; key = watcher.poll()) {
+                    Path directory = directories.get(key);
+                    if(directory != null) {
+                        for(WatchEvent<?> event: key.pollEvents()) {
+                            if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                                overflowed.add(directory);
+                            } else {
+                                apply(directory, event);
+                            }
+                        }
+                    }
+                    if(!key.reset()) directories.remove(key);
+                }
+                rescan(overflowed);
+                if(directories.isEmpty()) {
+                    console.printf(CONSOLE_FORMAT, "[Info] The watched directory was deleted => " + root);
+                    return;
+                }
+            }
+        } catch(InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    private void apply(Path directory, WatchEvent<?> event) {
+        Path p = directory.resolve((Path) event.context());
+        if(event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+            remove(p);
+        } else if(event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+            // the directory may already have content when its registered.
+            scan(p, true);
+        } else {
+            update(p);
+        }
+    }
+    /**
+     * add a path and its subtree to the model, registering its directories.
+     * @param report - true to print the paths as created.
+     */
+    private void scan(Path start, boolean report) {
+        try(FileWalker walker = new FileWalker(start, 0)) {
+            while(walker.hasNext()) {
+                PathEntry entry = walker.next();
+                Snapshot snapshot = toSnapshot(entry.attributes());
+                Snapshot previous = model.put(entry.path(), snapshot);
+                if(snapshot.type() == 'd') register(entry.path());
+                if(report) print(previous == null ? '+' : '~', snapshot, entry.path(), previous);
+            }
+        }
+    }
+    private void register(Path directory) {
+        try {
+            WatchKey key = directory.register(
+                    watcher,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY
+            );
+            directories.put(key, directory);
+        } catch(IOException e) {
+            console.printf(CONSOLE_FORMAT, "[Warning] Couldn't watch => " + directory + " " + e.getMessage());
+        }
+    }
+    /**
+     * remove a path and its subtree from the model.
+     */
+    private void remove(Path p) {
+        for(Path removed: getSubtree(p)) {
+            print('-', model.remove(removed), removed, null);
+        }
+    }
+    /**
+     * read the attributes of a modified path, only a change of a file size or time is printed.
+     */
+    private void update(Path p) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(p, BasicFileAttributes.class);
+        } catch(IOException e) {
+            // deleted after the event, the delete event follows.
+            return;
+        }
+        Snapshot previous = model.get(p);
+        if(previous == null) {
+            // a modify event without the create event, like after an overflow.
+            scan(p, true);
+            return;
+        }
+        Snapshot snapshot = toSnapshot(attributes);
+        model.put(p, snapshot);
+        print('~', snapshot, p, previous);
+    }
+    /**
+     * walk the overflowed directories again, a directory under another one of the list is walked with it.
+     * @param overflowed - the directories whose events were lost.
+     */
+    private void rescan(List<Path> overflowed) {
+        // the parents come first, so only the outermost directories are queued.
+        overflowed.sort(Comparator.comparingInt(Path::getNameCount));
+        Set<Path> queued = new HashSet<>();
+        List<Path> rescans = new ArrayList<>();
+        for(Path directory: overflowed) {
+            if(isUnder(directory, queued)) continue;
+            queued.add(directory);
+            rescans.add(directory);
+        }
+        for(Path directory: rescans) {
+            console.printf(CONSOLE_FORMAT, "[Warning] Events lost, scanning again => " + directory);
+            rescan(directory);
+        }
+    }
+    /**
+     * @return true if the path or one of its parents is on the set.
+     */
+    private static boolean isUnder(Path p, Set<Path> directories) {
+        for(Path q = p; q != null; q = q.getParent()) {
+            if(directories.contains(q)) return true;
+        }
+        return false;
+    }
+    /**
+     * walk a directory again and compare it with the model, for the events lost by an overflow.
+     */
+    private void rescan(Path directory) {
+        List<Path> known = getSubtree(directory);
+        scan(directory, true);
+        for(Path p: known) {
+            if(!Files.exists(p) && model.containsKey(p)) {
+                print('-', model.remove(p), p, null);
+            }
+        }
+    }
+    /**
+     * @return the path and the paths under it that are in the model.
+     */
+    private List<Path> getSubtree(Path p) {
+        List<Path> subtree = new ArrayList<>();
+        String prefix = p.toString();
+        for(Path q: model.tailMap(p, true).keySet()) {
+            if(!q.toString().startsWith(prefix)) break;
+            if(q.startsWith(p)) subtree.add(q);
+        }
+        return subtree;
+    }
+    private static Snapshot toSnapshot(BasicFileAttributes attributes) {
+        char type = attributes.isDirectory() ? 'd' : attributes.isRegularFile() ? 'f' : 'o';
+        return new Snapshot(type, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+    /**
+     * print a change, a path created again with the same state isn't a change.
+     */
+    private static void print(char action, Snapshot snapshot, Path p, Snapshot previous) {
+        if(snapshot == null || snapshot.equals(previous)) return;
+        if(action == '~' && snapshot.type() == 'd') return;
+        console.printf(CHANGE_FORMAT, action, snapshot.type(), snapshot.size(), p);
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.utils;
+
+/**
+ * Precompiled whole word matcher.
+ * <p> A word is a run of [A-Za-z0-9] characters, everything else is a boundary, the comparison ignores case.
+ * <p> The line is scanned once and nothing is allocated while matching, so the same matcher can be used on every line of a search.
+ */
+public final class WordMatcher implements SearchEngine {
+    private static final String ALPHA_NUMERIC = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * the word folded to lower case ASCII, null if no token can ever be equal to it.
+     */
+    private final char[] word;
+
+    /**
+     * @param word - the word to search, prepared once for every line.
+     */
+    public WordMatcher(String word) {
+        this.word = fold(word);
+    }
+    /**
+     * Fold the word into the lower case ASCII characters a token must have to be equal ignoring case.
+     * <p> a character outside [A-Za-z0-9] can still be equal to one inside, like the Kelvin sign and k.
+     * @param word - the word to fold.
+     * @return the folded word, or null if no token can be equal to the word.
+     */
+    private static char[] fold(String word) {
+        if(word == null || word.isBlank()) return null;
+        char[] folded = new char[word.length()];
+        for(int i=0; i<folded.length; ++i) {
+            char c = word.charAt(i);
+            if(isAlphaNumeric(c)) {
+                folded[i] = toLowerCase(c);
+                continue;
+            }
+            String s = String.valueOf(c);
+            int match = -1;
+            for(int j=0; j<ALPHA_NUMERIC.length() && match == -1; ++j) {
+                if(s.equalsIgnoreCase(ALPHA_NUMERIC.substring(j, j+1))) match = j;
+            }
+            if(match == -1) return null;
+            folded[i] = ALPHA_NUMERIC.charAt(match);
+        }
+        return folded;
+    }
+    static boolean isAlphaNumeric(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+    static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c | 0x20) : c;
+    }
+    /**
+     * The word folded to lower case ASCII.
+     * @return a copy of the folded word, null if the matcher never matches.
+     */
+    public char[] getWord() {
+        return word == null ? null : word.clone();
+    }
+    /**
+     * Determine if the line contains the word as a whole token.
+     * @param line - is the line that possibly contains the word.
+     * @return true if the line contains that word, false otherwise.
+     */
+    @Override
+    public boolean matches(CharSequence line) {
+        if(line == null || word == null) return false;
+        final int length = word.length;
+        // k is the number of matched characters of the current token, -1 once the token can't match.
+        int k = 0;
+        for(int i=0, n=line.length(); i<n; ++i) {
+            char c = line.charAt(i);
+            if(isAlphaNumeric(c)) {
+                if(k >= 0) {
+                    k = k < length && toLowerCase(c) == word[k] ? k+1 : -1;
+                }
+            } else {
+                if(k == length) return true;
+                k = 0;
+            }
+        }
+        return k == length;
+    }
+}
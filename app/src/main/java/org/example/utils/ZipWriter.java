@@ -0,0 +1,224 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Writes a standard zip file from entries that are already deflated.
+ * <p> {@link java.util.zip.ZipOutputStream} deflates the data itself, so it can't receive entries compressed on other threads.
+ * <p> The sizes and CRC-32 are known before each entry is written, so no data descriptors are used,
+ * and the ZIP64 records are added when an entry, the offsets or the number of entries don't fit the classic format.
+ */
+public final class ZipWriter implements AutoCloseable {
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final short ZIP64_EXTRA = 0x0001;
+    private static final int DEFLATED = 8;
+    /**
+     * the entry names are UTF-8.
+     */
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final long MAX_32 = 0xFFFFFFFFL;
+    private static final int MAX_16 = 0xFFFF;
+
+    /**
+     * an entry already deflated, the data is in memory or on a temporary file.
+     * @param name - the entry name with "/" as separator.
+     * @param crc - the CRC-32 of the uncompressed data.
+     * @param size - the uncompressed size.
+     * @param compressedSize - the deflated size.
+     * @param modified - the last modification time in milliseconds.
+     * @param data - the deflated data, null if its on the temporary file.
+     * @param dataFile - the temporary file with the deflated data, null if its in memory.
+     */
+    public record Entry(String name, long crc, long size, long compressedSize, long modified, byte[] data, Path dataFile) {}
+
+    private record Written(byte[] name, long crc, long size, long compressedSize, int dosTime, long offset) {}
+
+    private final OutputStream output;
+    private final List<Written> central = new ArrayList<>();
+    /**
+     * sizes and offsets from this value use the ZIP64 records.
+     */
+    private final long zip64Limit;
+    private long position;
+
+    public ZipWriter(Path targetPath) throws IOException {
+        this(targetPath, MAX_32);
+    }
+    /**
+     * @param zip64Limit - sizes and offsets from this value use the ZIP64 records, 0 to use them always.
+     */
+    ZipWriter(Path targetPath, long zip64Limit) throws IOException {
+        output = new BufferedOutputStream(Files.newOutputStream(targetPath), 1 << 16);
+        this.zip64Limit = zip64Limit;
+    }
+    /**
+     * @return the number of entries written.
+     */
+    public int getEntries() {
+        return central.size();
+    }
+    /**
+     * Write the local header and the deflated data of an entry.
+     * <p> the temporary file of the entry is deleted once its copied.
+     * @param entry - the deflated entry.
+     */
+    public void write(Entry entry) throws IOException {
+        byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+        boolean zip64 = entry.size() >= zip64Limit || entry.compressedSize() >= zip64Limit;
+        int dosTime = toDosTime(entry.modified());
+        Written w = new Written(name, entry.crc(), entry.size(), entry.compressedSize(), dosTime, position);
+
+        ByteBuffer header = buffer(30 + name.length + (zip64 ? 20 : 0));
+        header.putInt(LOCAL_HEADER);
+        header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION));
+        header.putShort((short) UTF8_FLAG);
+        header.putShort((short) DEFLATED);
+        header.putInt(dosTime);
+        header.putInt((int) entry.crc());
+        header.putInt((int) (zip64 ? MAX_32 : entry.compressedSize()));
+        header.putInt((int) (zip64 ? MAX_32 : entry.size()));
+        header.putShort((short) name.length);
+        header.putShort((short) (zip64 ? 20 : 0));
+        header.put(name);
+        if(zip64) {
+            header.putShort(ZIP64_EXTRA);
+            header.putShort((short) 16);
+            header.putLong(entry.size());
+            header.putLong(entry.compressedSize());
+        }
+        writeBuffer(header);
+
+        if(entry.data() != null) {
+            output.write(entry.data(), 0, (int) entry.compressedSize());
+        } else {
+            try(InputStream input = Files.newInputStream(entry.dataFile())) {
+                input.transferTo(output);
+            } finally {
+                Files.deleteIfExists(entry.dataFile());
+            }
+        }
+        position += entry.compressedSize();
+        central.add(w);
+    }
+    /**
+     * Write the central directory and the end records, then close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long centralOffset = position;
+            for(Written w: central) {
+                writeCentralHeader(w);
+            }
+            long centralSize = position - centralOffset;
+            int entries = central.size();
+            boolean zip64 = entries >= MAX_16 || centralOffset >= zip64Limit || centralSize >= zip64Limit;
+            if(zip64) {
+                long zip64Offset = position;
+                ByteBuffer end64 = buffer(56 + 20);
+                end64.putInt(ZIP64_END_OF_CENTRAL);
+                end64.putLong(44);
+                end64.putShort((short) VERSION_ZIP64);
+                end64.putShort((short) VERSION_ZIP64);
+                end64.putInt(0);
+                end64.putInt(0);
+                end64.putLong(entries);
+                end64.putLong(entries);
+                end64.putLong(centralSize);
+                end64.putLong(centralOffset);
+                end64.putInt(ZIP64_LOCATOR);
+                end64.putInt(0);
+                end64.putLong(zip64Offset);
+                end64.putInt(1);
+                writeBuffer(end64);
+            }
+            ByteBuffer end = buffer(22);
+            end.putInt(END_OF_CENTRAL);
+            end.putShort((short) 0);
+            end.putShort((short) 0);
+            end.putShort((short) Math.min(entries, MAX_16));
+            end.putShort((short) Math.min(entries, MAX_16));
+            end.putInt((int) (centralSize >= zip64Limit ? MAX_32 : centralSize));
+            end.putInt((int) (centralOffset >= zip64Limit ? MAX_32 : centralOffset));
+            end.putShort((short) 0);
+            writeBuffer(end);
+        } finally {
+            output.close();
+        }
+    }
+    private void writeCentralHeader(Written w) throws IOException {
+        boolean sizes64 = w.size() >= zip64Limit || w.compressedSize() >= zip64Limit;
+        boolean offset64 = w.offset() >= zip64Limit;
+        int extra = (sizes64 ? 16 : 0) + (offset64 ? 8 : 0);
+        boolean zip64 = extra > 0;
+
+        ByteBuffer header = buffer(46 + w.name().length + (zip64 ? 4 + extra : 0));
+        header.putInt(CENTRAL_HEADER);
+        header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION));
+        header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION));
+        header.putShort((short) UTF8_FLAG);
+        header.putShort((short) DEFLATED);
+        header.putInt(w.dosTime());
+        header.putInt((int) w.crc());
+        header.putInt((int) (sizes64 ? MAX_32 : w.compressedSize()));
+        header.putInt((int) (sizes64 ? MAX_32 : w.size()));
+        header.putShort((short) w.name().length);
+        header.putShort((short) (zip64 ? 4 + extra : 0));
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putInt(0);
+        header.putInt((int) (offset64 ? MAX_32 : w.offset()));
+        header.put(w.name());
+        if(zip64) {
+            header.putShort(ZIP64_EXTRA);
+            header.putShort((short) extra);
+            if(sizes64) {
+                header.putLong(w.size());
+                header.putLong(w.compressedSize());
+            }
+            if(offset64) header.putLong(w.offset());
+        }
+        writeBuffer(header);
+    }
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        output.write(buffer.array(), 0, buffer.position());
+        position += buffer.position();
+    }
+    /**
+     * Convert a time into the MS-DOS date and time of the zip headers, times before 1980 are stored as 1980.
+     */
+    private static int toDosTime(long millis) {
+        LocalDateTime t = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if(t.getYear() < 1980) return (1 << 21) | (1 << 16);
+        return (t.getYear() - 1980) << 25
+            | t.getMonthValue() << 21
+            | t.getDayOfMonth() << 16
+            | t.getHour() << 11
+            | t.getMinute() << 5
+            | t.getSecond() >> 1;
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.utils;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class CopyUtilsTest {
+    private static void sync(Path source, Path target, boolean delete) {
+        new CopyUtils(new FileUtils(), 2).syncDirToTarget(source, target, 0, false, delete);
+    }
+    private static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+    private static void deleteTree(Path root) throws IOException {
+        try(Stream<Path> files = Files.walk(root)) {
+            for(Path f: (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(f);
+        }
+    }
+
+    @Test public void copiesOnlyChangedFiles() throws IOException {
+        Path source = Files.createTempDirectory("sync-source");
+        Path target = Files.createTempDirectory("sync-target");
+        try {
+            write(source.resolve("same.txt"), "same");
+            write(source.resolve("nested").resolve("changed.txt"), "old");
+            sync(source, target, false);
+            assertEquals("same", Files.readString(target.resolve("same.txt")));
+            assertEquals("old", Files.readString(target.resolve("nested").resolve("changed.txt")));
+
+            // same size and modification time, the file is taken as unchanged and kept.
+            Path same = target.resolve("same.txt");
+            FileTime modified = Files.getLastModifiedTime(same);
+            Files.writeString(same, "kept");
+            Files.setLastModifiedTime(same, modified);
+            write(source.resolve("nested").resolve("changed.txt"), "new content");
+            sync(source, target, false);
+            assertEquals("kept", Files.readString(same));
+            assertEquals("new content", Files.readString(target.resolve("nested").resolve("changed.txt")));
+        } finally {
+            deleteTree(source);
+            deleteTree(target);
+        }
+    }
+
+    @Test public void replacesPathsOfAnotherType() throws IOException {
+        Path source = Files.createTempDirectory("sync-source");
+        Path target = Files.createTempDirectory("sync-target");
+        Path outside = Files.createTempDirectory("sync-outside");
+        try {
+            write(target.resolve("was-file"), "file");
+            write(target.resolve("was-directory").resolve("inner.txt"), "inner");
+            write(outside.resolve("secret.txt"), "secret");
+            Files.createSymbolicLink(target.resolve("link.txt"), outside.resolve("secret.txt"));
+            Files.createSymbolicLink(target.resolve("linked"), outside);
+
+            write(source.resolve("was-file").resolve("now.txt"), "now a directory");
+            write(source.resolve("was-directory"), "now a file");
+            write(source.resolve("link.txt"), "replaces the link");
+            write(source.resolve("linked").resolve("secret.txt"), "replaces the linked directory");
+            sync(source, target, false);
+
+            assertEquals("now a directory", Files.readString(target.resolve("was-file").resolve("now.txt")));
+            assertEquals("now a file", Files.readString(target.resolve("was-directory")));
+            assertFalse(Files.isSymbolicLink(target.resolve("link.txt")));
+            assertEquals("replaces the link", Files.readString(target.resolve("link.txt")));
+            assertTrue(Files.isDirectory(target.resolve("linked"), LinkOption.NOFOLLOW_LINKS));
+            assertEquals("replaces the linked directory", Files.readString(target.resolve("linked").resolve("secret.txt")));
+            assertEquals("secret", Files.readString(outside.resolve("secret.txt")));
+        } finally {
+            deleteTree(source);
+            deleteTree(target);
+            deleteTree(outside);
+        }
+    }
+
+    @Test public void deletesExtrasWithoutFollowingLinks() throws IOException {
+        Path source = Files.createTempDirectory("sync-source");
+        Path target = Files.createTempDirectory("sync-target");
+        Path outside = Files.createTempDirectory("sync-outside");
+        try {
+            write(source.resolve("kept").resolve("file.txt"), "kept");
+            write(target.resolve("extra.txt"), "extra");
+            write(target.resolve("kept").resolve("extra.txt"), "extra");
+            write(target.resolve("extra").resolve("deep").resolve("file.txt"), "extra");
+            write(outside.resolve("secret.txt"), "secret");
+            Files.createSymbolicLink(target.resolve("kept").resolve("linked"), outside);
+            sync(source, target, true);
+
+            assertEquals("kept", Files.readString(target.resolve("kept").resolve("file.txt")));
+            assertFalse(Files.exists(target.resolve("extra.txt")));
+            assertFalse(Files.exists(target.resolve("kept").resolve("extra.txt")));
+            assertFalse(Files.exists(target.resolve("extra")));
+            assertFalse(Files.exists(target.resolve("kept").resolve("linked"), LinkOption.NOFOLLOW_LINKS));
+            assertEquals("secret", Files.readString(outside.resolve("secret.txt")));
+        } finally {
+            deleteTree(source);
+            deleteTree(target);
+            deleteTree(outside);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.utils;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Locale;
+import java.util.Random;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class LiteralMatcherTest {
+    /**
+     * the substring search the matcher must agree with, ignoring the case of ASCII letters only.
+     */
+    private static boolean contains(String line, String text) {
+        if(line == null || text == null || text.isEmpty()) return false;
+        return fold(line).contains(fold(text));
+    }
+    private static String fold(String s) {
+        StringBuilder folded = new StringBuilder();
+        for(char c: s.toCharArray()) folded.append(c >= 'A' && c <= 'Z' ? Character.toLowerCase(c) : c);
+        return folded.toString();
+    }
+
+    @Test public void matchesSubstringsIgnoringCase() {
+        LiteralMatcher matcher = new LiteralMatcher("oBa");
+        assertTrue(matcher.matches("foobar"));
+        assertTrue(matcher.matches("FOOBAR"));
+        assertTrue(matcher.matches("oba"));
+        assertFalse(matcher.matches("ob a"));
+        assertFalse(matcher.matches("ob"));
+        assertFalse(matcher.matches(null));
+        assertFalse(new LiteralMatcher("").matches("a"));
+        assertFalse(new LiteralMatcher("a\nb").matches("a\nb"));
+    }
+
+    @Test public void agreesWithContains() {
+        String alphabet = "aAbB ab\tĀāé€Ā";
+        Random random = new Random(42);
+        for(int i=0; i<200_000; ++i) {
+            StringBuilder line = new StringBuilder();
+            for(int j=random.nextInt(16); j>0; --j) line.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            StringBuilder text = new StringBuilder();
+            for(int j=random.nextInt(4); j>0; --j) text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            String l = line.toString(), t = text.toString();
+            assertEquals("[" + l + "] [" + t + "]", contains(l, t), new LiteralMatcher(t).matches(l));
+        }
+    }
+
+    @Test public void mappedSearchAgreesWithLines() throws IOException {
+        String alphabet = "aAbBé \n\r";
+        Random random = new Random(7);
+        Path file = Files.createTempFile("literal", ".txt");
+        try {
+            for(int i=0; i<500; ++i) {
+                StringBuilder content = new StringBuilder();
+                for(int j=random.nextInt(64); j>0; --j) content.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                String text = random.nextBoolean() ? "ab" : "Bé";
+                Files.writeString(file, content);
+                LiteralMatcher matcher = new LiteralMatcher(text.toLowerCase(Locale.ROOT));
+                assertEquals(
+                        content.toString(),
+                        new SearchUtils(new FileUtils()).searchInFile(file, matcher),
+                        new SearchUtils(new FileUtils()).searchLiteralInMappedFile(file, matcher)
+                );
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.utils;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+public class WordMatcherTest {
+    /**
+     * the tokenizer {@link TextUtils#lineContainsWord} used before the matcher existed.
+     */
+    private static boolean tokenize(String line, String word) {
+        if (line == null || word == null) return false;
+        if (line.isBlank() || word.isBlank()) return false;
+        for(String token: line.replaceAll("[^A-Za-z0-9]+", " ").trim().split("\\s+")) {
+            if(token.equalsIgnoreCase(word)) return true;
+        }
+        return false;
+    }
+
+    @Test public void matchesWholeWordsIgnoringCase() {
+        WordMatcher matcher = new WordMatcher("error");
+        assertTrue(matcher.matches("ERROR: disk full"));
+        assertTrue(matcher.matches("[Error]"));
+        assertTrue(matcher.matches("an error"));
+        assertFalse(matcher.matches("errors were found"));
+        assertTrue(matcher.matches("no_error"));
+        assertFalse(matcher.matches("noerror"));
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test public void neverMatchesBlankOrSeparatorWords() {
+        assertFalse(new WordMatcher("").matches("a b"));
+        assertFalse(new WordMatcher("  ").matches("a  b"));
+        assertFalse(new WordMatcher("a-b").matches("a-b"));
+        assertFalse(new WordMatcher(null).matches("a"));
+    }
+
+    @Test public void agreesWithTokenizer() {
+        String alphabet = "aAbB01 -_.\tzZKkéıſK";
+        Random random = new Random(42);
+        for(int i=0; i<200_000; ++i) {
+            StringBuilder line = new StringBuilder();
+            for(int j=random.nextInt(12); j>0; --j) line.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            StringBuilder word = new StringBuilder();
+            for(int j=random.nextInt(4); j>0; --j) word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            String l = line.toString(), w = word.toString();
+            assertEquals("[" + l + "] [" + w + "]", tokenize(l, w), new WordMatcher(w).matches(l));
+        }
+    }
+}
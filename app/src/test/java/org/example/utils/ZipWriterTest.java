@@ -0,0 +1,130 @@
+package org.example.utils;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ZipWriterTest {
+    /**
+     * the content of each entry, read back with {@link ZipFile}.
+     */
+    private static Map<String, byte[]> readZipFile(Path zip) throws IOException {
+        Map<String, byte[]> entries = new HashMap<>();
+        try(ZipFile file = new ZipFile(zip.toFile())) {
+            Enumeration<? extends ZipEntry> it = file.entries();
+            while(it.hasMoreElements()) {
+                ZipEntry entry = it.nextElement();
+                try(InputStream in = file.getInputStream(entry)) {
+                    entries.put(entry.getName(), in.readAllBytes());
+                }
+            }
+        }
+        return entries;
+    }
+    /**
+     * the content of each entry, read back with {@link ZipInputStream} from the local headers.
+     */
+    private static Map<String, byte[]> readZipStream(Path zip) throws IOException {
+        Map<String, byte[]> entries = new HashMap<>();
+        try(ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+            ZipEntry entry;
+            while((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        return entries;
+    }
+    private static ZipWriter.Entry deflate(String name, byte[] data, Path dataFile) throws IOException {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        while(!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        byte[] compressed = out.toByteArray();
+        if(dataFile != null) Files.write(dataFile, compressed);
+        return new ZipWriter.Entry(name, crc.getValue(), data.length, compressed.length, System.currentTimeMillis(), dataFile != null ? null : compressed, dataFile);
+    }
+    private static long countDataFiles() throws IOException {
+        try(Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(f -> f.getFileName().toString().startsWith("filemanager-") && f.getFileName().toString().endsWith(".deflate")).count();
+        }
+    }
+    private static void deleteTree(Path root) throws IOException {
+        try(Stream<Path> files = Files.walk(root)) {
+            for(Path f: (Iterable<Path>) files.sorted((a, b) -> b.compareTo(a))::iterator) Files.delete(f);
+        }
+    }
+
+    @Test public void writesZip64Records() throws IOException {
+        Random random = new Random(3);
+        byte[] small = "hello zip64".getBytes();
+        byte[] big = new byte[100_000];
+        random.nextBytes(big);
+        Path zip = Files.createTempFile("zipwriter", ".zip");
+        Path dataFile = Files.createTempFile("zipwriter", ".deflate");
+        try {
+            try(ZipWriter writer = new ZipWriter(zip, 0)) {
+                writer.write(deflate("a.txt", small, null));
+                writer.write(deflate("dir/b.bin", big, dataFile));
+            }
+            assertFalse(Files.exists(dataFile));
+            for(Map<String, byte[]> entries: List.of(readZipFile(zip), readZipStream(zip))) {
+                assertEquals(2, entries.size());
+                assertArrayEquals(small, entries.get("a.txt"));
+                assertArrayEquals(big, entries.get("dir/b.bin"));
+            }
+        } finally {
+            Files.deleteIfExists(zip);
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    @Test public void compressesBigFilesThroughTemporaryFiles() throws IOException {
+        Random random = new Random(5);
+        Path source = Files.createTempDirectory("compress");
+        Path zip = Files.createTempFile("compress", ".zip");
+        try {
+            byte[] big = new byte[(8 << 20) + 4096];
+            random.nextBytes(big);
+            byte[] small = "small file".getBytes();
+            Files.createDirectories(source.resolve("nested"));
+            Files.write(source.resolve("nested").resolve("big.bin"), big);
+            Files.write(source.resolve("small.txt"), small);
+            long dataFiles = countDataFiles();
+            new CompressUtils(new FileUtils(), 2, -1).compressPath(source, zip, 0);
+            assertEquals(dataFiles, countDataFiles());
+            for(Map<String, byte[]> entries: List.of(readZipFile(zip), readZipStream(zip))) {
+                assertEquals(2, entries.size());
+                assertArrayEquals(big, entries.get("nested/big.bin"));
+                assertArrayEquals(small, entries.get("small.txt"));
+            }
+        } finally {
+            Files.deleteIfExists(zip);
+            deleteTree(source);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+#!/usr/bin/env bash
+# Compare the startup of the JVM jar and the native binary listing a small directory.
+# Build them first with: gradlew :app:jar :app:nativeCompile
+# Usage: app/startup-bench.sh [runs] [directory]
+RUNS="${1:-20}"
+DIR="${2:-$(dirname "$0")/src}"
+APP="$(dirname "$0")/build"
+JAR="${APP}/libs/app.jar"
+NATIVE="${APP}/native/nativeCompile/fm"
+
+for f in "$JAR" "$NATIVE"; do
+    if [ ! -f "$f" ]; then
+        echo "[Error] Missing $f, run: gradlew :app:jar :app:nativeCompile"
+        exit 1
+    fi
+done
+
+if command -v hyperfine > /dev/null; then
+    exec hyperfine --warmup 3 --runs "$RUNS" -N \
+        "java -jar ${JAR} --ls ${DIR} --quiet" \
+        "${NATIVE} --ls ${DIR} --quiet"
+fi
+
+# average wall time of the runs in milliseconds.
+measure() {
+    local start end
+    start=$(date +%s%N)
+    for ((i = 0; i < RUNS; ++i)); do
+        "$@" > /dev/null
+    done
+    end=$(date +%s%N)
+    echo $(( (end - start) / RUNS / 1000000 ))
+}
+
+# warm the file system cache before measuring.
+"$NATIVE" --ls "$DIR" > /dev/null
+echo "jvm    => $(measure java -jar "$JAR" --ls "$DIR" --quiet) ms per run"
+echo "native => $(measure "$NATIVE" --ls "$DIR" --quiet) ms per run"
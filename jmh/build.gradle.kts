@@ -0,0 +1,43 @@
+/*
+ * Benchmarks for the file manager operations, run them with `gradlew :jmh:jmh`.
+ * Use -Pjmh.includes=<regex> to run only the matching benchmarks.
+ * Use -Pjmh.treeScale=0.1 to run the file operations against smaller generated trees.
+ * The results are written as JSON into build/results/jmh/results.json.
+ */
+
+plugins {
+    java
+}
+
+repositories {
+    // Use Maven Central for resolving dependencies.
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":app"))
+    implementation(libs.jmh.core)
+    annotationProcessor(libs.jmh.generator.annprocess)
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(23)
+    }
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
+    val results = layout.buildDirectory.file("results/jmh/results.json")
+    outputs.file(results)
+    outputs.upToDateWhen { false }
+    args(providers.gradleProperty("jmh.includes").getOrElse(".*"))
+    args("-rf", "json", "-rff", results.get().asFile.path)
+    args("-jvmArgsAppend", "-Djmh.tree.scale=" + providers.gradleProperty("jmh.treeScale").getOrElse("1"))
+    doFirst {
+        results.get().asFile.parentFile.mkdirs()
+    }
+}
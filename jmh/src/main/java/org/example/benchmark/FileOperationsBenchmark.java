@@ -0,0 +1,156 @@
+package org.example.benchmark;
+
+import org.example.utils.FileUtils;
+import org.example.utils.LiteralMatcher;
+import org.example.utils.OutputUtils;
+import org.example.utils.PathEntry;
+import org.example.utils.SearchUtils;
+import org.example.utils.TextUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time of the file operations against the generated {@link SyntheticTree} shapes.
+ * <p> Each invocation starts with empty targets, so the copy and the de-compress always write the whole tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileOperationsBenchmark {
+    /**
+     * number of lines of the largest file kept in memory for lineContainsWord.
+     */
+    private static final int SAMPLE_LINES = 1 << 16;
+    private static final String WORD = "error";
+
+    @Param({"SMALL_FILES", "HUGE_FILES", "DEEP_NESTING"})
+    public SyntheticTree tree;
+
+    private int jobs = Runtime.getRuntime().availableProcessors();
+    private FileUtils fileUtils;
+    private TextUtils textUtils;
+    private Path root;
+    private Path largestFile;
+    private List<String> sampleLines;
+    private Path work;
+    private Path copyTarget;
+    private Path compressed;
+    private Path compressTarget;
+    private Path deCompressTarget;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        OutputUtils.getInstance().setQuiet(true);
+        fileUtils = new FileUtils();
+        textUtils = new TextUtils();
+        root = tree.getRoot();
+        try(Stream<Path> paths = Files.walk(root)) {
+            largestFile = paths
+                .filter(Files::isRegularFile)
+                .max(Comparator.comparingLong(FileOperationsBenchmark::size))
+                .orElseThrow();
+        }
+        try(BufferedReader reader = Files.newBufferedReader(largestFile)) {
+            sampleLines = reader.lines().limit(SAMPLE_LINES).toList();
+        }
+        work = Files.createDirectories(SyntheticTree.getWorkDirectory().resolve("work-" + tree.name().toLowerCase()));
+        copyTarget = work.resolve("copy");
+        compressTarget = work.resolve("compress.zip");
+        compressed = work.resolve("source.zip");
+        deCompressTarget = work.resolve("decompress");
+        fileUtils.compreessPath(root, compressed, 0, jobs, -1);
+    }
+    @Setup(Level.Invocation)
+    public void resetTargets() throws IOException {
+        SyntheticTree.delete(copyTarget);
+        SyntheticTree.delete(deCompressTarget);
+        Files.deleteIfExists(compressTarget);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticTree.delete(work);
+    }
+    /**
+     * walk the whole tree with the attributes of each entry, the way the commands consume it.
+     */
+    @Benchmark
+    public long getLazilyDirEntries() {
+        try(Stream<PathEntry> entries = fileUtils.getLazilyDirEntries(root.toString(), 0)) {
+            return entries.count();
+        }
+    }
+    @Benchmark
+    public void copyDirToTarget() {
+        fileUtils.copyDirToTarget(root, copyTarget.toString(), 0, jobs);
+    }
+    @Benchmark
+    public void compreessPath() {
+        fileUtils.compreessPath(root, compressTarget, 0, jobs, -1);
+    }
+    @Benchmark
+    public void deCompressFile() {
+        fileUtils.deCompressFile(compressed.toString(), List.of(deCompressTarget), jobs);
+    }
+    /**
+     * search the largest file of the tree.
+     */
+    @Benchmark
+    public List<String> searchWordInFile() {
+        return new SearchUtils(fileUtils).searchWordInFile(largestFile, WORD);
+    }
+    /**
+     * search a text in the largest file, decoding every line.
+     */
+    @Benchmark
+    public List<String> searchLiteralInFile() {
+        return new SearchUtils(fileUtils).searchInFile(largestFile, new LiteralMatcher(WORD));
+    }
+    /**
+     * search a text in the largest file, jumping over the mapped bytes.
+     */
+    @Benchmark
+    public List<String> searchLiteralInMappedFile() {
+        return new SearchUtils(fileUtils).searchLiteralInMappedFile(largestFile, new LiteralMatcher(WORD));
+    }
+    /**
+     * match the first lines of the largest file, already in memory.
+     */
+    @Benchmark
+    public void lineContainsWord(Blackhole blackhole) {
+        for(String line: sampleLines) {
+            blackhole.consume(textUtils.lineContainsWord(line, WORD));
+        }
+    }
+    private static long size(Path p) {
+        try {
+            return Files.size(p);
+        } catch(IOException e) {
+            return 0;
+        }
+    }
+}
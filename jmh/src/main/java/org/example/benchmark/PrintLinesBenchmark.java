@@ -0,0 +1,72 @@
+package org.example.benchmark;
+
+import org.example.utils.TextUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of --rl: the old path built the whole file in a String and split it again, the new one streams the lines.
+ * <p> The old path is expected to fail with OutOfMemoryError on the 4 GB file with the default heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class PrintLinesBenchmark {
+    @Param({"10485760", "1073741824", "4294967296"})
+    public long size;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"), "filemanager-jmh");
+        Files.createDirectories(directory);
+        file = directory.resolve("lines-" + size + ".log");
+        if(Files.isRegularFile(file) && Files.size(file) >= size) return;
+        try(BufferedWriter writer = Files.newBufferedWriter(file)) {
+            long written = 0;
+            for(long i=0; written < size; ++i) {
+                String line = "2024-01-01T00:00:00Z INFO request " + i + " took " + (i % 997) + " ms";
+                writer.write(line);
+                writer.newLine();
+                written += line.length() + 1;
+            }
+        }
+    }
+    /**
+     * the --rl implementation before streaming.
+     */
+    @Benchmark
+    public void bufferedString() throws IOException {
+        Writer output = Writer.nullWriter();
+        String[] lines = TextUtils.getFileLines(file.toString()).split("\n");
+        for(int i=0; i<lines.length; ++i) {
+            output.write(String.format("%d:%s%n", i+1, lines[i]));
+        }
+    }
+    @Benchmark
+    public void streamed() throws IOException {
+        TextUtils.writeNumberedLines(file.toString(), new BufferedWriter(Writer.nullWriter(), 1 << 16));
+    }
+}
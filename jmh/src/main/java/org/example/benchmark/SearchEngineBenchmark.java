@@ -0,0 +1,65 @@
+package org.example.benchmark;
+
+import org.example.utils.SearchEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the engines of --mode on the same lines, run with -prof gc to check that matching a line doesn't allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchEngineBenchmark {
+    private static final String[] WORDS = {
+        "INFO", "WARN", "ERROR", "request", "user", "id", "took", "ms", "failed", "connection", "timeout", "42", "retry"
+    };
+
+    @Param({"word", "literal", "regex"})
+    public String mode;
+
+    @Param({"connection", "notpresent"})
+    public String pattern;
+
+    private String[] lines;
+    private SearchEngine engine;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        lines = new String[4096];
+        for(int i=0; i<lines.length; ++i) {
+            StringBuilder line = new StringBuilder("2024-01-01T00:00:00Z ");
+            for(int j=random.nextInt(16)+4; j>0; --j) {
+                line.append(WORDS[random.nextInt(WORDS.length)]);
+                line.append(random.nextBoolean() ? " " : ": ");
+            }
+            lines[i] = line.toString();
+        }
+        engine = SearchEngine.of(mode, pattern);
+    }
+    @Benchmark
+    public int matchLines() {
+        int found = 0;
+        for(String l: lines) {
+            if(engine.matches(l)) ++found;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates the directory trees the file operation benchmarks run against.
+ * <p> A tree is generated once under the temporary directory and reused by later runs,
+ * the marker file is only written when the tree is complete.
+ * <p> The sizes can be scaled down with -Djmh.tree.scale=0.1 for quick runs.
+ */
+public enum SyntheticTree {
+    /**
+     * 20 directories with 1000 files of 1 KB each.
+     */
+    SMALL_FILES {
+        @Override
+        void generate(Path root, double scale, Random random) throws IOException {
+            int files = scaled(1000, scale);
+            for(int d=0; d<20; ++d) {
+                Path directory = Files.createDirectories(root.resolve("dir" + d));
+                for(int f=0; f<files; ++f) {
+                    writeLog(directory.resolve("file" + f + ".log"), 1 << 10, random);
+                }
+            }
+        }
+    },
+    /**
+     * 4 log files of 256 MB each.
+     */
+    HUGE_FILES {
+        @Override
+        void generate(Path root, double scale, Random random) throws IOException {
+            long size = scaled(256L << 20, scale);
+            for(int f=0; f<4; ++f) {
+                writeLog(root.resolve("huge" + f + ".log"), size, random);
+            }
+        }
+    },
+    /**
+     * a chain of 64 nested directories with 16 files of 4 KB on each level.
+     */
+    DEEP_NESTING {
+        @Override
+        void generate(Path root, double scale, Random random) throws IOException {
+            int files = scaled(16, scale);
+            Path directory = root;
+            for(int d=0; d<64; ++d) {
+                directory = Files.createDirectories(directory.resolve("level" + d));
+                for(int f=0; f<files; ++f) {
+                    writeLog(directory.resolve("file" + f + ".log"), 4 << 10, random);
+                }
+            }
+        }
+    };
+
+    private static final String MARKER = ".complete";
+    private static final String[] WORDS = {
+        "INFO", "WARN", "ERROR", "request", "user", "id", "took", "ms", "failed", "connection", "timeout", "retry"
+    };
+
+    abstract void generate(Path root, double scale, Random random) throws IOException;
+
+    /**
+     * @return the directory where the benchmarks keep their generated files.
+     */
+    public static Path getWorkDirectory() throws IOException {
+        return Files.createDirectories(Paths.get(System.getProperty("java.io.tmpdir"), "filemanager-jmh"));
+    }
+    /**
+     * Get the tree root, generating it if its missing or incomplete.
+     * @return the root directory of the tree.
+     */
+    public Path getRoot() throws IOException {
+        double scale = Double.parseDouble(System.getProperty("jmh.tree.scale", "1"));
+        Path root = getWorkDirectory().resolve(name().toLowerCase() + "-" + scale);
+        if(Files.exists(root.resolve(MARKER))) return root;
+        delete(root);
+        Files.createDirectories(root);
+        generate(root, scale, new Random(7));
+        Files.createFile(root.resolve(MARKER));
+        return root;
+    }
+    /**
+     * Delete a path recursively, used to reset the benchmark targets between invocations.
+     * @param path - the path to delete.
+     */
+    public static void delete(Path path) throws IOException {
+        if(!Files.exists(path)) return;
+        try(Stream<Path> paths = Files.walk(path)) {
+            for(Path p: paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+    /**
+     * Write a log like file of random lines.
+     * @param file - the file to write.
+     * @param size - the approximated size in bytes.
+     */
+    static void writeLog(Path file, long size, Random random) throws IOException {
+        try(BufferedWriter writer = Files.newBufferedWriter(file)) {
+            long written = 0;
+            StringBuilder line = new StringBuilder();
+            while(written < size) {
+                line.setLength(0);
+                line.append("2024-01-01T00:00:00Z");
+                for(int j=random.nextInt(12)+4; j>0; --j) {
+                    line.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+                }
+                writer.append(line).append('\n');
+                written += line.length() + 1;
+            }
+        }
+    }
+    private static int scaled(int value, double scale) {
+        return Math.max(1, (int) (value * scale));
+    }
+    private static long scaled(long value, double scale) {
+        return Math.max(1, (long) (value * scale));
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.benchmark;
+
+import org.example.utils.TextUtils;
+import org.example.utils.WordMatcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the regex tokenizer that lineContainsWord used to run with the precompiled {@link WordMatcher}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordMatcherBenchmark {
+    private static final String[] WORDS = {
+        "INFO", "WARN", "ERROR", "request", "user", "id", "took", "ms", "failed", "connection", "timeout", "42", "retry"
+    };
+
+    @Param({"error", "notpresent"})
+    public String word;
+
+    private String[] lines;
+    private TextUtils textUtils;
+    private WordMatcher matcher;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        lines = new String[4096];
+        for(int i=0; i<lines.length; ++i) {
+            StringBuilder line = new StringBuilder("2024-01-01T00:00:00Z ");
+            for(int j=random.nextInt(16)+4; j>0; --j) {
+                line.append(WORDS[random.nextInt(WORDS.length)]);
+                line.append(random.nextBoolean() ? " " : ": ");
+            }
+            lines[i] = line.toString();
+        }
+        textUtils = new TextUtils();
+        matcher = new WordMatcher(word);
+    }
+    /**
+     * the tokenizer lineContainsWord ran before the matcher existed.
+     */
+    private static boolean tokenize(String line, String word) {
+        if (line == null || word == null) return false;
+        if (line.isBlank() || word.isBlank()) return false;
+        String[] tokens = line
+            .replaceAll("[^A-Za-z0-9]+", " ")
+            .trim()
+            .split("\\s+");
+        for(int i=tokens.length-1; i>=0; --i) {
+            if (tokens[i].equalsIgnoreCase(word)) return true;
+        }
+        return false;
+    }
+    @Benchmark
+    public int regexTokenizer() {
+        int found = 0;
+        for(String l: lines) {
+            if(tokenize(l, word)) ++found;
+        }
+        return found;
+    }
+    @Benchmark
+    public int lineContainsWord() {
+        int found = 0;
+        for(String l: lines) {
+            if(textUtils.lineContainsWord(l, word)) ++found;
+        }
+        return found;
+    }
+    @Benchmark
+    public int precompiledMatcher() {
+        int found = 0;
+        for(String l: lines) {
+            if(matcher.matches(l)) ++found;
+        }
+        return found;
+    }
+}
@@ -12,3 +12,4 @@ plugins {
 
 rootProject.name = "FileManager"
 include("app")
+include("jmh")